@@ -22,6 +22,8 @@ import ListItem from "@tiptap/extension-list-item";
 import {Bold, Italic, Undo, Redo, List, ListOrdered, ChevronDown, X} from "lucide-react";
 import {Post, Category, Tag, PostStatus} from "../services/apiService";
 
+const AUTOSAVE_DELAY_MS = 3000;
+
 interface PostFormProps {
     initialPost?: Post | null;
     onSubmit: (postData: {
@@ -32,6 +34,8 @@ interface PostFormProps {
         status: PostStatus;
     }) => Promise<void>;
     onCancel: () => void;
+    // called a few seconds after the author stops typing
+    onAutosave?: (draft: {title: string; content: string}) => void;
     categories: Category[];
     availableTags: Tag[];
     isSubmitting?: boolean;
@@ -41,6 +45,7 @@ const PostForm: React.FC<PostFormProps> = ({
     initialPost,
     onSubmit,
     onCancel,
+    onAutosave,
     categories,
     availableTags,
     isSubmitting = false,
@@ -50,6 +55,8 @@ const PostForm: React.FC<PostFormProps> = ({
     const [selectedTags, setSelectedTags] = useState<Tag[]>(initialPost?.tags || []);
     const [status, setStatus] = useState<PostStatus>(initialPost?.status || PostStatus.DRAFT);
     const [errors, setErrors] = useState<Record<string, string>>({});
+    // bumped by every edit of the title or the content, the autosave timer restarts on each
+    const [changes, setChanges] = useState(0);
 
     const editor = useEditor({
         extensions: [
@@ -89,6 +96,25 @@ const PostForm: React.FC<PostFormProps> = ({
         }
     }, [initialPost, editor]);
 
+    useEffect(() => {
+        if (!editor) {
+            return;
+        }
+        const countChange = () => setChanges((count) => count + 1);
+        editor.on("update", countChange);
+        return () => {
+            editor.off("update", countChange);
+        };
+    }, [editor]);
+
+    useEffect(() => {
+        if (!editor || !onAutosave || changes === 0) {
+            return;
+        }
+        const timer = setTimeout(() => onAutosave({title: title.trim(), content: editor.getHTML()}), AUTOSAVE_DELAY_MS);
+        return () => clearTimeout(timer);
+    }, [changes, editor, onAutosave, title]);
+
     const validateForm = (): boolean => {
         const newErrors: Record<string, string> = {};
 
@@ -150,7 +176,10 @@ const PostForm: React.FC<PostFormProps> = ({
                         <Input
                             label="Title"
                             value={title}
-                            onChange={(e) => setTitle(e.target.value)}
+                            onChange={(e) => {
+                                setTitle(e.target.value);
+                                setChanges((count) => count + 1);
+                            }}
                             isInvalid={!!errors.title}
                             errorMessage={errors.title}
                             isRequired
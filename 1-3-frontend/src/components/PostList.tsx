@@ -1,12 +1,11 @@
 import React from "react";
 import {useNavigate} from "react-router-dom";
 import {Card, CardBody, CardFooter, CardHeader, Chip} from "@nextui-org/react";
-import {Post} from "../services/apiService";
+import {PostSummary} from "../services/apiService";
 import {Calendar, Clock, Tag} from "lucide-react";
-import DOMPurify from "dompurify";
 
 interface PostListProps {
-    posts: Post[] | null;
+    posts: PostSummary[] | null;
     loading: boolean;
     error: string | null;
     page: number;
@@ -33,43 +32,11 @@ const PostList: React.FC<PostListProps> = ({posts, loading, error}) => {
         });
     };
 
-    // const createSanitizedHTML = (content: string) => {
-    //     return {
-    //         __html: DOMPurify.sanitize(content, {
-    //             ALLOWED_TAGS: ["p", "strong", "em", "br"],
-    //             ALLOWED_ATTR: [],
-    //         }),
-    //     };
-    // };
-
-    const createExcerpt = (content: string) => {
-        // First sanitize the HTML
-        const sanitizedContent = DOMPurify.sanitize(content, {
-            ALLOWED_TAGS: ["p", "strong", "em", "br"],
-            ALLOWED_ATTR: [],
-        });
-
-        // Create a temporary div to parse the HTML
-        const tempDiv = document.createElement("div");
-        tempDiv.innerHTML = sanitizedContent;
-
-        // Get the text content and limit it
-        let textContent = tempDiv.textContent || tempDiv.innerText || "";
-        textContent = textContent.trim();
-
-        // Limit to roughly 200 characters, ending at the last complete word
-        if (textContent.length > 200) {
-            textContent = textContent.substring(0, 200).split(" ").slice(0, -1).join(" ") + "...";
-        }
-
-        return textContent;
-    };
-
     if (error) {
         return <div className="p-4 text-red-500 bg-red-50 rounded-lg">{error}</div>;
     }
 
-    const navToPostPage = (post: Post) => {
+    const navToPostPage = (post: PostSummary) => {
         navigate(`/posts/${post.id}`);
     };
 
@@ -118,7 +85,7 @@ const PostList: React.FC<PostListProps> = ({posts, loading, error}) => {
                                     </div>
                                 </CardHeader>
                                 <CardBody>
-                                    <p className="line-clamp-3">{createExcerpt(post.content)}</p>
+                                    <p className="line-clamp-3">{post.excerpt}</p>
                                 </CardBody>
                                 <CardFooter className="flex flex-wrap gap-3">
                                     <div className="flex items-center gap-1 text-small text-default-500">
@@ -2,7 +2,7 @@ import React, {useEffect, useState} from "react";
 import {useParams, useNavigate} from "react-router-dom";
 import {Card, CardBody, CardHeader, Button} from "@nextui-org/react";
 import {ArrowLeft} from "lucide-react";
-import {apiService, Post, Category, Tag, PostStatus} from "../services/apiService";
+import {apiService, ApiError, Post, Category, Tag, PostStatus} from "../services/apiService";
 import PostForm from "../components/PostForm";
 
 const EditPostPage: React.FC = () => {
@@ -14,6 +14,8 @@ const EditPostPage: React.FC = () => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [isSubmitting, setIsSubmitting] = useState(false);
+    // the server only autosaves drafts, after its first 409 this post is saved explicitly only
+    const [autosaveEnabled, setAutosaveEnabled] = useState(true);
 
     useEffect(() => {
         const fetchData = async () => {
@@ -70,6 +72,19 @@ const EditPostPage: React.FC = () => {
         }
     };
 
+    const handleAutosave = async (draft: {title: string; content: string}) => {
+        if (!id || !autosaveEnabled) {
+            return;
+        }
+        try {
+            await apiService.autosaveDraft(id, draft);
+        } catch (err) {
+            if ((err as ApiError).status === 409) {
+                setAutosaveEnabled(false);
+            }
+        }
+    };
+
     const handleCancel = () => {
         if (id) {
             navigate(`/posts/${id}`);
@@ -114,6 +129,7 @@ const EditPostPage: React.FC = () => {
                         initialPost={post}
                         onSubmit={handleSubmit}
                         onCancel={handleCancel}
+                        onAutosave={id && autosaveEnabled ? handleAutosave : undefined}
                         categories={categories}
                         availableTags={tags}
                         isSubmitting={isSubmitting}
@@ -1,12 +1,12 @@
 import React, {useEffect, useState} from "react";
 import {Card, CardHeader, CardBody, Tabs, Tab} from "@nextui-org/react";
-import {apiService, Post, Category, Tag} from "../services/apiService";
+import {apiService, PostSummary, Category, Tag} from "../services/apiService";
 import PostList from "../components/PostList";
 
 import {motion, AnimatePresence} from "framer-motion";
 
 const HomePage: React.FC = () => {
-    const [posts, setPosts] = useState<Post[] | null>(null);
+    const [posts, setPosts] = useState<PostSummary[] | null>(null);
     const [categories, setCategories] = useState<Category[]>([]);
     const [tags, setTags] = useState<Tag[]>([]);
     const [loading, setLoading] = useState(true);
@@ -29,7 +29,7 @@ const HomePage: React.FC = () => {
                     apiService.getTags(),
                 ]);
 
-                setPosts(postsResponse);
+                setPosts(postsResponse.posts);
                 setCategories(categoriesResponse);
                 setTags(tagsResponse);
                 setError(null);
@@ -51,6 +51,24 @@ export interface Post {
   status?: PostStatus;
 }
 
+// Listing endpoints return summaries: the full content is only sent by GET /posts/{id}
+export interface PostSummary extends Omit<Post, 'content'> {
+  excerpt?: string;
+}
+
+export interface PostPage {
+  posts: PostSummary[];
+  nextCursor: string | null;  // pass back as `cursor` to fetch the next page
+}
+
+export interface PostSearchResult {
+  id: string;
+  title: string;
+  snippet: string;  // escaped HTML, matches wrapped in <mark>
+  score: number;
+  createdAt: string;
+}
+
 export interface CreatePostRequest {
   title: string;
   content: string;
@@ -63,6 +81,11 @@ export interface UpdatePostRequest extends CreatePostRequest {
   id: string;
 }
 
+export interface AutosaveDraftRequest {
+  title?: string;
+  content?: string;
+}
+
 
 export interface ApiError {
   status: number;
@@ -172,8 +195,15 @@ class ApiService {
   public async getPosts(params: {
     categoryId?: string;
     tagId?: string;
-  }): Promise<Post[]> {
-    const response: AxiosResponse<Post[]> = await this.api.get('/posts', { params });
+    cursor?: string;
+    limit?: number;
+  }): Promise<PostPage> {
+    const response: AxiosResponse<PostPage> = await this.api.get('/posts', { params });
+    return response.data;
+  }
+
+  public async searchPosts(q: string, limit?: number): Promise<PostSearchResult[]> {
+    const response: AxiosResponse<PostSearchResult[]> = await this.api.get('/posts/search', { params: { q, limit } });
     return response.data;
   }
 
@@ -192,16 +222,20 @@ class ApiService {
     return response.data;
   }
 
+  // drafts only (409 otherwise): the server keeps the latest autosave in memory and writes it shortly after
+  public async autosaveDraft(id: string, draft: AutosaveDraftRequest): Promise<void> {
+    await this.api.put(`/posts/${id}/autosave`, draft);
+  }
+
   public async deletePost(id: string): Promise<void> {
     await this.api.delete(`/posts/${id}`);
   }
 
   public async getDrafts(params: {
-    page?: number;  // Pagination page number
-    size?: number;  // Items per page
-    sort?: string;  //Sorting criteria (e.g., "createdAt,desc")
-  }): Promise<Post[]> {
-    const response: AxiosResponse<Post[]> = await this.api.get('/posts/drafts', { params });
+    cursor?: string;  // nextCursor of the previous page
+    limit?: number;   // Items per page
+  }): Promise<PostPage> {
+    const response: AxiosResponse<PostPage> = await this.api.get('/posts/drafts', { params });
     return response.data;
   }
 
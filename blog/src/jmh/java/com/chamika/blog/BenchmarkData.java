@@ -0,0 +1,95 @@
+package com.chamika.blog;
+
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+// Entity graphs shaped like a real listing: a handful of authors and categories shared by all
+// posts, a few tags per post and TipTap HTML content of the requested size.
+public final class BenchmarkData {
+
+    private static final String PARAGRAPH = "<h2>Section heading</h2><p>Some <strong>bold</strong> and "
+            + "<em>emphasised</em> text with a <a href=\"https://example.com/some/long/path\">link</a>, an entity "
+            + "&amp; a&nbsp;non-breaking space. Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p>\n";
+
+    private BenchmarkData() {
+    }
+
+    public static String html(int sizeKb) {
+        StringBuilder html = new StringBuilder(sizeKb * 1024 + PARAGRAPH.length());
+        while (html.length() < sizeKb * 1024) {
+            html.append(PARAGRAPH);
+        }
+        return html.toString();
+    }
+
+    public static User user(int n) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .email("author" + n + "@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuuabcdefghijklmnopqrstuvwxyzABCDE")
+                .name("Author " + n)
+                .createdAt(LocalDateTime.now().minusYears(1))
+                .build();
+    }
+
+    public static List<Category> categories(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(n -> Category.builder()
+                        .id(UUID.randomUUID())
+                        .name("Category " + n)
+                        .publishedPostCount(n * 7L)
+                        .build())
+                .toList();
+    }
+
+    public static List<Tag> tags(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(n -> Tag.builder()
+                        .id(UUID.randomUUID())
+                        .name("tag-" + n)
+                        .publishedPostCount(n * 3L)
+                        .build())
+                .toList();
+    }
+
+    public static List<Post> posts(int count, int contentKb) {
+        List<User> authors = IntStream.range(0, 5).mapToObj(BenchmarkData::user).toList();
+        List<Category> categories = categories(8);
+        List<Tag> tags = tags(30);
+        String content = html(contentKb);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Post> posts = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Set<Tag> postTags = new HashSet<>();
+            for (int t = 0; t < 4; t++) {
+                postTags.add(tags.get((n * 4 + t) % tags.size()));
+            }
+            posts.add(Post.builder()
+                    .id(UUID.randomUUID())
+                    .title("Post number " + n + " about something worth reading")
+                    .content(content)
+                    .excerpt(content.substring(0, Math.min(200, content.length())))
+                    .status(PostStatus.PUBLISHED)
+                    .readingTime(contentKb + 1)
+                    .author(authors.get(n % authors.size()))
+                    .category(categories.get(n % categories.size()))
+                    .tags(postTags)
+                    .createdAt(now.minusHours(n))
+                    .updatedAt(now.minusMinutes(n))
+                    .build());
+        }
+        return posts;
+    }
+}
@@ -0,0 +1,178 @@
+package com.chamika.blog;
+
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.CategoryRepository;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.repositories.UserRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load against GET /api/v1/posts with platform threads and then virtual threads (needs a
+// Java 21 runtime for the second run). H2 answers in microseconds, so every statement is delayed by
+// dbLatencyMs while holding its connection to stand in for the network round trip to PostgreSQL.
+//
+//   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.chamika.blog.ThreadingLoadTest \
+//       -Dbenchmark.java=<jdk21>/bin/java -Dbenchmark.args="<clients> <seconds> <dbLatencyMs> <poolSize>"
+public final class ThreadingLoadTest {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    private ThreadingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int dbLatencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        System.out.printf("%d clients, %ds, %dms per statement, pool of %d, Java %s%n",
+                clients, seconds, dbLatencyMs, poolSize, Runtime.version().feature());
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual, dbLatencyMs, poolSize)) {
+                seed(context);
+                int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                URI uri = URI.create("http://localhost:" + port + "/api/v1/posts?limit=20");
+                run(uri, clients, 5);
+                Result result = run(uri, clients, seconds);
+                System.out.printf("%-8s %s%n", virtual ? "virtual" : "platform", result);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual, int dbLatencyMs, int poolSize) {
+        SpringApplication application = new SpringApplication(BlogApplication.class);
+        application.addInitializers(context -> context.getBeanFactory()
+                .addBeanPostProcessor(delayingStatements(Duration.ofMillis(dbLatencyMs))));
+        return application.run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.connection-timeout=30000",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        User author = context.getBean(UserRepository.class).save(User.builder()
+                .email("load@example.com")
+                .password("not-used")
+                .name("Load Test")
+                .build());
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder().name("Load").build());
+        List<Post> posts = BenchmarkData.posts(100, 5);
+        posts.forEach(post -> {
+            post.setId(null);
+            post.setAuthor(author);
+            post.setCategory(category);
+            post.setTags(new HashSet<>());
+        });
+        context.getBean(PostRepository.class).saveAll(posts);
+    }
+
+    private static Result run(URI uri, int clients, int seconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            executor.execute(() -> {
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    if (count < samples.length - 1) {
+                        samples[++count] = System.nanoTime() - start;
+                    }
+                }
+                samples[0] = count;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1))
+                .sorted()
+                .toArray();
+        return new Result(all.length / (double) seconds, percentile(all, 0.50), percentile(all, 0.99),
+                percentile(all, 0.999), all.length == 0 ? 0 : all[all.length - 1] / 1_000_000.0, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1_000_000.0;
+    }
+
+    private static BeanPostProcessor delayingStatements(Duration latency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        Connection connection = super.getConnection();
+                        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                new Class<?>[]{Connection.class}, (proxy, method, methodArgs) -> {
+                                    if (STATEMENT_METHODS.contains(method.getName())) {
+                                        Thread.sleep(latency.toMillis());
+                                    }
+                                    try {
+                                        return method.invoke(connection, methodArgs);
+                                    } catch (InvocationTargetException ex) {
+                                        throw ex.getCause();
+                                    }
+                                });
+                    }
+                };
+            }
+        };
+    }
+
+    private record Result(double throughput, double p50, double p99, double p999, double max, long errors) {
+        @Override
+        public String toString() {
+            return String.format("%8.0f req/s  p50 %7.1fms  p99 %7.1fms  p99.9 %7.1fms  max %7.1fms  errors %d",
+                    throughput, p50, p99, p999, max, errors);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.chamika.blog.domain.dtos;
+
+import com.chamika.blog.BenchmarkData;
+import com.chamika.blog.mappers.PostMapper;
+import com.chamika.blog.mappers.PostMapperImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response body serialization of a page of full posts, with the same ObjectMapper defaults
+// Spring Boot configures (java.time module, ISO dates).
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostDtoSerializationBenchmark {
+
+    @Param({"20"})
+    private int postCount;
+
+    @Param({"5", "50"})
+    private int contentKb;
+
+    private ObjectWriter writer;
+    private List<PostDto> posts;
+
+    @Setup
+    public void setUp() {
+        PostMapper postMapper = new PostMapperImpl();
+        posts = BenchmarkData.posts(postCount, contentKb).stream().map(postMapper::toDto).toList();
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+    }
+
+    @Benchmark
+    public byte[] serializePosts() throws JsonProcessingException {
+        return writer.writeValueAsBytes(posts);
+    }
+}
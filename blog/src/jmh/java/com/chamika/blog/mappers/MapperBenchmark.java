@@ -0,0 +1,77 @@
+package com.chamika.blog.mappers;
+
+import com.chamika.blog.BenchmarkData;
+import com.chamika.blog.domain.dtos.CategoryDto;
+import com.chamika.blog.domain.dtos.PostDto;
+import com.chamika.blog.domain.dtos.TagDto;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// MapStruct mappings behind the post, category and tag endpoints. Post and tag counts are
+// denormalized columns now, so the category/tag mappings are plain field copies.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final PostMapper postMapper = new PostMapperImpl();
+    private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+    private final TagMapper tagMapper = new TagMapperImpl();
+
+    private List<Category> categories;
+    private List<Tag> tags;
+
+    // separate state so only the post benchmark runs once per postCount
+    @State(Scope.Benchmark)
+    public static class Posts {
+
+        @Param({"1", "20"})
+        private int postCount;
+
+        private List<Post> posts;
+
+        @Setup
+        public void setUp() {
+            posts = BenchmarkData.posts(postCount, 5);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        categories = BenchmarkData.categories(50);
+        tags = BenchmarkData.tags(200);
+    }
+
+    @Benchmark
+    public List<PostDto> postsToDto(Posts state) {
+        return state.posts.stream().map(postMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<CategoryDto> categoriesToDto() {
+        return categories.stream().map(categoryMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<TagDto> tagsToDto() {
+        return tags.stream().map(tagMapper::toTagResponse).toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.chamika.blog.security;
+
+import com.chamika.blog.BenchmarkData;
+import com.chamika.blog.services.impl.AuthenticationBenchmark;
+import com.chamika.blog.services.impl.AuthenticationServiceImpl;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// The filter as it runs on every API request: header extraction, token validation and setting the
+// security context. "legacy" tokens lack the id/name claims and go through the (stubbed) user store.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"off", "on"})
+    private String tokenCache;
+
+    @Param({"claims", "legacy"})
+    private String tokenKind;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        BlogUserDetails user = new BlogUserDetails(BenchmarkData.user(1));
+        AuthenticationServiceImpl authenticationService =
+                AuthenticationBenchmark.benchmarkService("on".equals(tokenCache), username -> user);
+        filter = new JwtAuthenticationFilter(authenticationService);
+
+        UserDetails tokenSubject = "legacy".equals(tokenKind)
+                ? org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                        .password(user.getPassword())
+                        .build()
+                : user;
+        authorizationHeader = "Bearer " + authenticationService.generateToken(tokenSubject);
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts/drafts");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request.getAttribute("userId");
+    }
+}
@@ -0,0 +1,76 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.BenchmarkData;
+import com.chamika.blog.security.BlogUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// JWT issue and validation. With tokenCache=off every validation verifies the signature and
+// parses the claims, otherwise repeat validations of the same token hit the verified token cache.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    @Param({"off", "on"})
+    private String tokenCache;
+
+    private AuthenticationServiceImpl authenticationService;
+    private BlogUserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // the user store is never consulted for tokens carrying the id and name claims
+        authenticationService = benchmarkService("on".equals(tokenCache), username -> {
+            throw new IllegalStateException("unexpected user lookup for " + username);
+        });
+        user = new BlogUserDetails(BenchmarkData.user(1));
+        token = authenticationService.generateToken(user);
+    }
+
+    public static AuthenticationServiceImpl benchmarkService(boolean tokenCache, UserDetailsService userStore) {
+        AuthenticationServiceImpl service = new AuthenticationServiceImpl(
+                authentication -> authentication,
+                userStore,
+                null,
+                null,
+                new SimpleMeterRegistry()
+        );
+        ReflectionTestUtils.setField(service, "secretKey", "benchmark-secret-key-that-is-at-least-32-bytes");
+        ReflectionTestUtils.setField(service, "tokenCacheMaxSize", 10_000L);
+        // entries that expire on write are never returned, a size bound of 0 still serves hits until eviction runs
+        ReflectionTestUtils.setField(service, "tokenCacheTtl", tokenCache ? Duration.ofMinutes(5) : Duration.ZERO);
+        service.init();
+        return service;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return authenticationService.generateToken(user);
+    }
+
+    @Benchmark
+    public UserDetails validateToken() {
+        return authenticationService.validateToken(token);
+    }
+}
@@ -0,0 +1,81 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Write-path content analysis: the single pass in ContentAnalysis against the previous
+// split("\\s+") reading time plus regex based plain text and excerpt, on TipTap-like HTML.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentAnalysisBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int sizeKb;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkData.html(sizeKb);
+    }
+
+    @Benchmark
+    public ContentAnalysis singlePass() {
+        return ContentAnalysis.of(content);
+    }
+
+    @Benchmark
+    public void previous(Blackhole blackhole) {
+        blackhole.consume(previousReadingTime(content));
+        String plainText = previousPlainText(content);
+        blackhole.consume(previousExcerpt(plainText));
+        blackhole.consume(plainText);
+    }
+
+    @Benchmark
+    public int previousReadingTimeOnly() {
+        return previousReadingTime(content);
+    }
+
+    private static int previousReadingTime(String content) {
+        int wordCount = content.trim().split("\\s+").length;
+        return (int) Math.ceil((double) wordCount / ContentAnalysis.WORDS_PER_MINUTE);
+    }
+
+    private static String previousPlainText(String html) {
+        return html.replaceAll("<[^>]*>", " ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static String previousExcerpt(String text) {
+        if (text.length() <= ContentAnalysis.EXCERPT_LENGTH) {
+            return text;
+        }
+        int lastSpace = text.lastIndexOf(' ', ContentAnalysis.EXCERPT_LENGTH);
+        return text.substring(0, lastSpace > 0 ? lastSpace : ContentAnalysis.EXCERPT_LENGTH) + "...";
+    }
+}
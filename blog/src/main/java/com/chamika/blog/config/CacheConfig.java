@@ -0,0 +1,43 @@
+package com.chamika.blog.config;
+
+import com.chamika.blog.domain.EncodedPostResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String POSTS = "posts";
+    public static final String CATEGORIES = "categories";
+    public static final String TAGS = "tags";
+    public static final String VIEW_COUNTS = "view-counts";
+    public static final String POST_RESPONSES = "post-responses";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${blog.cache.posts.spec:maximumSize=1000,expireAfterWrite=10m,recordStats}") String postsSpec,
+            @Value("${blog.cache.listings.spec:maximumSize=10,expireAfterWrite=10m,recordStats}") String listingsSpec,
+            @Value("${blog.cache.view-counts.spec:maximumSize=10000,expireAfterWrite=10s,recordStats}") String viewCountsSpec,
+            @Value("${blog.cache.post-responses.spec:maximumWeight=67108864,recordStats}") String postResponsesSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(POSTS, Caffeine.from(postsSpec).build());
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.from(listingsSpec).build());
+        cacheManager.registerCustomCache(TAGS, Caffeine.from(listingsSpec).build());
+        cacheManager.registerCustomCache(VIEW_COUNTS, Caffeine.from(viewCountsSpec).build());
+        // bounded by the bytes held, not by the number of posts. No expiry: an entry never goes stale
+        cacheManager.registerCustomCache(POST_RESPONSES, Caffeine.from(postResponsesSpec)
+                .weigher((Object key, Object response) -> ((EncodedPostResponse) response).size())
+                .build());
+
+        // evictions from write methods are applied after the transaction commits,
+        // so a concurrent reader cannot put the old row back in between
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,56 @@
+package com.chamika.blog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// What the auto-configuration does not cover: service timers come from @Timed on the service
+// classes, Hikari and Hibernate meters from Boot itself (see application.properties).
+// Everything is scraped from /actuator/prometheus.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounting(SqlStatementCounter sqlStatementCounter) {
+        // an inspector set in the properties wins
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementsPerRequestFilter> sqlStatementsPerRequestFilter(
+            SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlStatementsPerRequestFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementsPerRequestFilter(sqlStatementCounter, meterRegistry));
+        // ahead of Spring Security, user lookups for old tokens count too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder postResponseCacheBytes(CacheManager cacheManager) {
+        // cache.size counts posts, this is the bytes their encoded responses hold
+        return registry -> {
+            Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(CacheConfig.POST_RESPONSES).getNativeCache();
+            Gauge.builder("blog.cache.post-responses.bytes", cache,
+                            responses -> responses.policy().eviction()
+                                    .map(eviction -> eviction.weightedSize().orElse(0))
+                                    .orElse(0L))
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+        };
+    }
+}
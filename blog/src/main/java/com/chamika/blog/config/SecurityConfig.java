@@ -3,8 +3,12 @@ package com.chamika.blog.config;
 import com.chamika.blog.domain.entities.User;
 import com.chamika.blog.repositories.UserRepository;
 import com.chamika.blog.security.BlogUserDetailsService;
+import com.chamika.blog.security.BoundedPasswordEncoder;
 import com.chamika.blog.security.JwtAuthenticationFilter;
+import com.chamika.blog.security.RehashingBCryptPasswordEncoder;
 import com.chamika.blog.services.AuthenticationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,12 +17,13 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 public class SecurityConfig {
 
@@ -30,7 +35,8 @@ public class SecurityConfig {
     @Bean
     // Validate users in protected endpoints (via JwtAuthenticationFilter).
     //This is a key interface in Spring Security used to load user information during authentication
-    public UserDetailsService userDetailsService(UserRepository userRepository){
+    // declared as BlogUserDetailsService so Spring Security also finds it as the UserDetailsPasswordService
+    public BlogUserDetailsService userDetailsService(UserRepository userRepository, PasswordEncoder passwordEncoder){
         BlogUserDetailsService blogUserDetailsService =  new BlogUserDetailsService(userRepository);
 
         //Ensures that this specific test/admin/demo user exists in DB before the app starts
@@ -39,7 +45,7 @@ public class SecurityConfig {
             User newUser = User.builder()
                     .name("chamika nimnajith")
                     .email(email)
-                    .password(passwordEncoder().encode("123456"))
+                    .password(passwordEncoder.encode("123456"))
                     .build();
             return userRepository.save(newUser);
         });
@@ -56,9 +62,14 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST,"/api/v1/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST,"/api/v1/auth/signup").permitAll()
                         .requestMatchers(HttpMethod.GET,"/api/v1/posts/drafts").authenticated()
+                        .requestMatchers(HttpMethod.GET,"/api/v1/posts/export").authenticated()
+                        // earlier revisions are for editors, including content that was never published
+                        .requestMatchers(HttpMethod.GET,"/api/v1/posts/*/revisions/**").authenticated()
                         .requestMatchers(HttpMethod.GET,"/api/v1/posts/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "api/v1/categories/**").permitAll()
                         .requestMatchers(HttpMethod.GET,"/api/v1/tags/**").permitAll()
+                        // scraped without a token, keep /actuator away from the public network at the proxy
+                        .requestMatchers(HttpMethod.GET,"/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .csrf(csrf ->csrf.disable())
@@ -71,8 +82,16 @@ public class SecurityConfig {
 
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    // stored hashes look like {bcrypt}$2a$10$..., hashing runs on its own bounded pool, see BoundedPasswordEncoder
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${blog.security.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${blog.security.password-hashing.threads:0}") int hashingThreads,
+            @Value("${blog.security.password-hashing.queue-capacity:32}") int hashingQueueCapacity,
+            MeterRegistry meterRegistry){
+        PasswordEncoder bcrypt = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new RehashingBCryptPasswordEncoder(bcryptStrength)));
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(bcrypt, threads, hashingQueueCapacity, meterRegistry);
     }
 
     @Bean
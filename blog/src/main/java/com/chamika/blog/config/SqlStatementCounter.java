@@ -0,0 +1,29 @@
+package com.chamika.blog.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the statements Hibernate sends on the current thread between start() and stop().
+// Statements outside a counted section (scheduled jobs, startup) are passed through untouched.
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> statements = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = statements.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    void start() {
+        statements.set(new int[1]);
+    }
+
+    int stop() {
+        int[] count = statements.get();
+        statements.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -1,10 +1,8 @@
 package com.chamika.blog.controllers;
 
 import com.chamika.blog.domain.dtos.*;
-import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.security.BlogUserDetails;
 import com.chamika.blog.services.AuthenticationService;
-import com.chamika.blog.services.UserService;
-import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,7 +16,6 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
-    private final UserService userService;
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest) {
@@ -57,20 +54,13 @@ public class AuthController {
 
     @GetMapping("/profile")
     public ResponseEntity<UserProfileResponse> getCurrentUserProfile(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal BlogUserDetails userDetails) {
 
-        // Get the authenticated user's email from UserDetails
-        String email = userDetails.getUsername();
-
-        // Fetch the complete user details from your service
-        User user = userService.getUserByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-
-        // Convert to DTO and return
+        // id, name and email all come from the token, no need to query the user again
         UserProfileResponse profileDto = new UserProfileResponse(
-                user.getId(),
-                user.getName(),
-                user.getEmail()
+                userDetails.getId(),
+                userDetails.getName(),
+                userDetails.getUsername()
         );
 
         return ResponseEntity.ok(profileDto);
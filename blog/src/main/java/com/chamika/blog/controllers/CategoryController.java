@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,11 +24,23 @@ public class CategoryController {
     private final CategoryMapper categoryMapper;
 
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> listCategories(){
-        List<CategoryDto> categories = categoryService.listCategories()
-                .stream().map(categoryMapper::toDto)
+    public ResponseEntity<List<CategoryDto>> listCategories(WebRequest webRequest){
+        List<Category> categories = categoryService.listCategories();
+
+        String eTag = ConditionalRequests.collectionETag(categories.stream()
+                .map(category -> category.getId() + ":" + category.getName() + ":" + category.getPublishedPostCount())
+                .toList());
+        if(webRequest.checkNotModified(eTag)){
+            return ConditionalRequests.notModified();
+        }
+
+        List<CategoryDto> categoryDtos = categories.stream()
+                .map(categoryMapper::toDto)
                 .toList();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(categoryDtos);
     }
 
     @PostMapping
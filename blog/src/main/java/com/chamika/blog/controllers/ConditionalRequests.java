@@ -0,0 +1,53 @@
+package com.chamika.blog.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+// Validators for conditional GET (ETag / Last-Modified -> 304).
+// ETags are built from version data (ids + updatedAt) so they can be checked before any DTO is built.
+final class ConditionalRequests {
+
+    // caches may store the response but must revalidate it, this also stops
+    // Spring Security from writing its default "no-store" header
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ConditionalRequests() {
+    }
+
+    // the gzipped bytes are a different representation of the same version and get their own tag
+    static String postETag(UUID id, LocalDateTime updatedAt, boolean gzipped) {
+        return "\"" + id + "-" + toEpochMicros(updatedAt) + (gzipped ? "-gzip" : "") + "\"";
+    }
+
+    // strong ETag over an ordered list of version parts, e.g. every "id:updatedAt" of a page
+    static String collectionETag(Iterable<?> versionParts) {
+        StringBuilder versions = new StringBuilder();
+        for (Object part : versionParts) {
+            versions.append(part).append('\n');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // validators were already written to the response by WebRequest.checkNotModified
+    static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+    }
+}
@@ -1,8 +1,13 @@
 package com.chamika.blog.controllers;
 
 import com.chamika.blog.domain.dtos.ApiErrorResponse;
+import com.chamika.blog.security.PasswordHashingRejectedException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -43,6 +48,17 @@ public class ErrorController {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    // a unique key or a version check caught a concurrent write, e.g. two edits of the same post revision
+    @ExceptionHandler({DataIntegrityViolationException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ApiErrorResponse> handleConcurrentWriteException(DataAccessException ex){
+        log.warn("Rejected conflicting write: {}", ex.getMostSpecificCause().getMessage());
+        ApiErrorResponse error = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message("The resource was changed at the same time, reload it and try again")
+                .build();
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiErrorResponse> handleBadCredentialsException(BadCredentialsException ex){
         ApiErrorResponse error = ApiErrorResponse.builder()
@@ -52,6 +68,18 @@ public class ErrorController {
         return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
     }
 
+    // the server as a whole is out of hashing capacity, not this client over a quota, hence 503 over 429
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex){
+        ApiErrorResponse error = ApiErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(ex.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ApiErrorResponse> handleEntityNotFoundException(EntityNotFoundException ex){
         ApiErrorResponse error = ApiErrorResponse.builder()
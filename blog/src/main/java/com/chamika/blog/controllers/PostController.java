@@ -1,23 +1,64 @@
 package com.chamika.blog.controllers;
 
+import com.chamika.blog.config.CacheConfig;
 import com.chamika.blog.domain.CreatePostRequest;
+import com.chamika.blog.domain.EncodedPostResponse;
+import com.chamika.blog.domain.PatchPostRequest;
+import com.chamika.blog.domain.PostPage;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
 import com.chamika.blog.domain.UpdatePostRequest;
+import com.chamika.blog.domain.dtos.AutosaveDraftRequestDto;
 import com.chamika.blog.domain.dtos.CreatePostRequestDto;
+import com.chamika.blog.domain.dtos.PatchPostRequestDto;
 import com.chamika.blog.domain.dtos.PostDto;
+import com.chamika.blog.domain.dtos.PostPageDto;
+import com.chamika.blog.domain.dtos.PostRevisionDto;
+import com.chamika.blog.domain.dtos.PostSearchResultDto;
+import com.chamika.blog.domain.dtos.PostSummaryDto;
+import com.chamika.blog.domain.dtos.PostViewsDto;
 import com.chamika.blog.domain.dtos.UpdatePostRequestDto;
 import com.chamika.blog.domain.entities.Post;
 import com.chamika.blog.domain.entities.User;
 import com.chamika.blog.mappers.PostMapper;
+import com.chamika.blog.security.BlogUserDetails;
+import com.chamika.blog.services.CategoryService;
+import com.chamika.blog.services.DraftAutosaveService;
+import com.chamika.blog.services.PostExportService;
+import com.chamika.blog.services.PostFeedService;
+import com.chamika.blog.services.PostImportService;
+import com.chamika.blog.services.PostRevisionService;
 import com.chamika.blog.services.PostService;
-import com.chamika.blog.services.UserService;
+import com.chamika.blog.services.PostViewService;
+import com.chamika.blog.services.SearchService;
+import com.chamika.blog.services.TagService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/posts")
@@ -26,32 +67,100 @@ public class PostController {
 
     private final PostService postService;
     private final PostMapper postMapper;
-    private final UserService userService;
+    private final SearchService searchService;
+    private final PostImportService postImportService;
+    private final PostExportService postExportService;
+    private final PostViewService postViewService;
+    private final PostRevisionService postRevisionService;
+    private final DraftAutosaveService draftAutosaveService;
+    private final PostFeedService postFeedService;
+    private final CategoryService categoryService;
+    private final TagService tagService;
+    private final ObjectMapper objectMapper;
+    // holds the post-responses cache: published posts as sent, keyed by id and checked against updatedAt
+    private final CacheManager cacheManager;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
     @GetMapping
-    public ResponseEntity<List<PostDto>> getAllPosts(
+    public ResponseEntity<PostPageDto> getAllPosts(
             @RequestParam(required = false) UUID categoryId,
-            @RequestParam(required = false) UUID tagId
+            @RequestParam(required = false) UUID tagId,
+            // cursor is the nextCursor of the previous page, leave it out for the first page
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest
             ){
-        List<Post> posts = postService.getAllPosts(categoryId, tagId);
-        List<PostDto> postDtos = posts.stream().map(postMapper::toDto).toList();
-        return ResponseEntity.ok(postDtos);
+        PostPage postPage = postService.getAllPosts(categoryId, tagId, cursor, limit);
+
+        // the page is already a cheap summary query, what a 304 saves is the mapping and the JSON.
+        // no Last-Modified here: removing a post from the page does not move the newest updatedAt
+        List<String> versions = new ArrayList<>();
+        for(PostSummary post : postPage.getPosts()){
+            versions.add(post.id() + ":" + post.updatedAt());
+        }
+        versions.add(String.valueOf(postPage.getNextCursor()));
+        String eTag = ConditionalRequests.collectionETag(versions);
+        if(webRequest.checkNotModified(eTag)){
+            return ConditionalRequests.notModified();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(postMapper.toPageDto(postPage));
      }
 
+    @GetMapping(path = "/search")
+    public ResponseEntity<List<PostSearchResultDto>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit){
+        List<PostSearchResultDto> results = searchService.search(q, limit)
+                .stream().map(postMapper::toSearchResultDto)
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+
+    // stays open and streams newly published posts as Server-Sent Events
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getFeed(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID tagId,
+            // sent by EventSource on reconnect, the posts published since are replayed
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        if(categoryId != null){
+            categoryService.getCategoryByID(categoryId);
+        }
+        if(tagId != null){
+            tagService.getTagById(tagId);
+        }
+        return postFeedService.subscribe(categoryId, tagId, parseEventId(lastEventId));
+    }
+
+    @GetMapping(path = "/most-viewed")
+    public ResponseEntity<List<PostSummaryDto>> getMostViewedPosts(@RequestParam(defaultValue = "10") int limit){
+        List<PostSummaryDto> posts = postService.getMostViewedPosts(limit)
+                .stream().map(postMapper::toSummaryDto)
+                .toList();
+        return ResponseEntity.ok(posts);
+    }
+
     @GetMapping(path = "/drafts")
-    //@RequestAttribute UUID userId  will get the current logged in userId
-    public ResponseEntity<List<PostDto>> getDrafts(@RequestAttribute UUID userId){
-        User loggedInUser = userService.getUserById(userId);
-        List<Post> draftPosts = postService.getDraftPosts(loggedInUser);
-        List<PostDto> postDtos = draftPosts.stream().map(postMapper::toDto).toList();
-        return ResponseEntity.ok(postDtos);
+    // the principal is the user rebuilt from the token claims, no need to load it again
+    public ResponseEntity<PostPageDto> getDrafts(
+            @AuthenticationPrincipal BlogUserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit){
+        User loggedInUser = userDetails.getUser();
+        PostPage draftPage = postService.getDraftPosts(loggedInUser, cursor, limit);
+        return ResponseEntity.ok(postMapper.toPageDto(draftPage));
     }
 
     @PostMapping
     public ResponseEntity<PostDto> createPost(
             @Valid @RequestBody CreatePostRequestDto createPostRequestDto,
-            @RequestAttribute UUID userId){
-        User loggedInUser = userService.getUserById(userId);
+            @AuthenticationPrincipal BlogUserDetails userDetails){
+        User loggedInUser = userDetails.getUser();
         CreatePostRequest createPostRequest = postMapper.toCreatePostRequest(createPostRequestDto);
         Post createdPost = postService.createPost(loggedInUser,createPostRequest);
         PostDto createdPostDto = postMapper.toDto(createdPost);
@@ -59,6 +168,48 @@ public class PostController {
     }
 
 
+    // bulk import: one post per NDJSON line in, one result per line out, streamed as chunks commit
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importPosts(
+            @AuthenticationPrincipal BlogUserDetails userDetails,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        User loggedInUser = userDetails.getUser();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        postImportService.importPosts(loggedInUser, request.getInputStream(), response.getOutputStream());
+    }
+
+    // every published post as NDJSON, gzipped when the client accepts it. Unknown filters give an empty export
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportPosts(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID tagId,
+            // createdAt range, from inclusive and to exclusive
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream body = response.getOutputStream();
+        if(acceptsGzip(acceptEncoding)){
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // the export is CPU bound on compression long before it is on the database
+            body = new GZIPOutputStream(body, EXPORT_BUFFER_SIZE){
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+        }
+        try(OutputStream out = new BufferedOutputStream(body, EXPORT_BUFFER_SIZE)){
+            postExportService.exportPublishedPosts(categoryId, tagId, from, to, out);
+        }
+    }
+
     @PutMapping(path = "/{id}")
     public ResponseEntity<PostDto> updatePost(
             @PathVariable UUID id,
@@ -70,13 +221,99 @@ public class PostController {
         return ResponseEntity.ok(updatedPostDto);
     }
 
+    // a few edits instead of the whole post. 409 when the post is no longer at baseRevision:
+    // fetch the current post (or the base with GET /{id}/revisions/{revision}) and rebase the edits
+    @PatchMapping(path = "/{id}")
+    public ResponseEntity<PostDto> patchPost(
+            @PathVariable UUID id,
+            @Valid @RequestBody PatchPostRequestDto patchPostRequestDto
+            ){
+        PatchPostRequest patchPostRequest = postMapper.toPatchPostRequest(patchPostRequestDto);
+        Post patchedPost = postService.patchPost(id, patchPostRequest);
+        return ResponseEntity.ok(postMapper.toDto(patchedPost));
+    }
+
+    // for editors saving every few seconds: 202 once the draft is buffered, it reaches the database on the
+    // next autosave flush, or earlier when the post is read or saved explicitly
+    @PutMapping(path = "/{id}/autosave")
+    public ResponseEntity<Void> autosaveDraft(
+            @PathVariable UUID id,
+            @Valid @RequestBody AutosaveDraftRequestDto autosaveDraftRequestDto){
+        draftAutosaveService.autosave(id, autosaveDraftRequestDto.getTitle(), autosaveDraftRequestDto.getContent());
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping(path = "/{id}/revisions/{revision}")
+    public ResponseEntity<PostRevisionDto> getPostRevision(
+            @PathVariable UUID id,
+            @PathVariable int revision){
+        PostRevisionDto postRevisionDto = PostRevisionDto.builder()
+                .postId(id)
+                .revision(revision)
+                .content(postRevisionService.getContentAtRevision(id, revision))
+                .build();
+        return ResponseEntity.ok(postRevisionDto);
+    }
+
+    // kept out of GET /{id}, whose body is cached for as long as the post does not change
+    @GetMapping(path = "/{id}/views")
+    public ResponseEntity<PostViewsDto> getPostViews(@PathVariable UUID id){
+        // 404 for an unknown post rather than a count of zero
+        postService.getPostVersion(id);
+        PostViewsDto postViewsDto = PostViewsDto.builder()
+                .postId(id)
+                .viewCount(postViewService.getViewCount(id))
+                .build();
+        return ResponseEntity.ok(postViewsDto);
+    }
+
+    // written by hand rather than through a ResponseEntity: the bytes of a published post are serialized
+    // and gzipped once per version, then copied straight from the cache to the response
     @GetMapping(path = "/{id}")
-    public ResponseEntity<PostDto> getPost(
-            @PathVariable UUID id
-    ){
+    public void getPost(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse response
+    ) throws IOException {
+        // check the client's copy against updatedAt alone before loading the post
+        LocalDateTime version = postService.getPostVersion(id);
+        // a revalidated copy is a view too. The count is left out of the ETag, so a 304 may show an older count
+        postViewService.recordView(id);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ConditionalRequests.REVALIDATE.getHeaderValue());
+        String eTag = ConditionalRequests.postETag(id, version, gzip);
+        if(webRequest.checkNotModified(eTag, ConditionalRequests.lastModified(version))){
+            return;
+        }
+
+        // keyed by version: an update leaves the old entry unreachable until the byte bound pushes it out
+        Cache postResponses = cacheManager.getCache(CacheConfig.POST_RESPONSES);
+        EncodedPostResponse cached = postResponses.get(new EncodedPostResponse.Key(id, version), EncodedPostResponse.class);
+        if(cached != null){
+            writeJson(response, cached.body(gzip), gzip);
+            return;
+        }
+
         Post post = postService.getPost(id);
-        PostDto postDto = postMapper.toDto(post);
-        return ResponseEntity.ok(postDto);
+        if(post.getUpdatedAt().isBefore(version)){
+            // read before an update committed and cached after the update evicted it, load what the version says
+            cacheManager.getCache(CacheConfig.POSTS).evict(id);
+            post = postService.getPost(id);
+        }
+        // the validators describe the bytes sent, which can be newer than the version checked above
+        response.setHeader(HttpHeaders.ETAG, ConditionalRequests.postETag(id, post.getUpdatedAt(), gzip));
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, ConditionalRequests.lastModified(post.getUpdatedAt()));
+        byte[] json = objectMapper.writeValueAsBytes(postMapper.toDto(post));
+        if(PostStatus.PUBLISHED.equals(post.getStatus())){
+            // keyed by what was serialized, a post cached just before an update then misses on the next read
+            EncodedPostResponse encoded = EncodedPostResponse.of(json);
+            postResponses.put(new EncodedPostResponse.Key(id, post.getUpdatedAt()), encoded);
+            writeJson(response, encoded.body(gzip), gzip);
+        } else {
+            writeJson(response, gzip ? EncodedPostResponse.gzip(json) : json, gzip);
+        }
     }
 
     @DeleteMapping(path = "/{id}")
@@ -84,4 +321,57 @@ public class PostController {
         postService.deletePost(id);
         return ResponseEntity.noContent().build();
     }
+
+    // gzip if the client lists it (or "*") with a non-zero q-value, "gzip;q=0" rules it out
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if(acceptEncoding == null){
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for(String coding : acceptEncoding.split(",")){
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for(int i = 1; i < parameters.length; i++){
+                String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+                if(parameter.startsWith("q=")){
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if(name.equals("gzip") || name.equals("x-gzip")){
+                gzip = quality;
+            } else if(name.equals("*")){
+                any = quality;
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    private static void writeJson(HttpServletResponse response, byte[] body, boolean gzipped) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if(gzipped){
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // an unreadable id is treated like a first connection
+    private static Long parseEventId(String lastEventId){
+        if(lastEventId == null || lastEventId.isBlank()){
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
 }
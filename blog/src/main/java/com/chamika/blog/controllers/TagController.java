@@ -9,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -22,10 +23,21 @@ public class TagController {
     private final TagMapper tagMapper;
 
     @GetMapping
-    public ResponseEntity<List<TagDto>> getAllTags(){
+    public ResponseEntity<List<TagDto>> getAllTags(WebRequest webRequest){
         List<Tag> tags = tagService.getTags();
+
+        String eTag = ConditionalRequests.collectionETag(tags.stream()
+                .map(tag -> tag.getId() + ":" + tag.getName() + ":" + tag.getPublishedPostCount())
+                .toList());
+        if(webRequest.checkNotModified(eTag)){
+            return ConditionalRequests.notModified();
+        }
+
         List<TagDto> tagRespons = tags.stream().map(tagMapper::toTagResponse).toList();
-        return ResponseEntity.ok(tagRespons);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(ConditionalRequests.REVALIDATE)
+                .body(tagRespons);
     }
 
     @PostMapping
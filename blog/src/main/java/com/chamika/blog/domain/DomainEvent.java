@@ -0,0 +1,99 @@
+package com.chamika.blog.domain;
+
+import java.util.UUID;
+
+// Something that happened to a post, category or tag that other parts of the application derive state
+// from (the search index, ...). Published through DomainEventService in the transaction that made the
+// change and handled after it commits. Drafts are private to their author, so only changes readers can
+// see are announced.
+public sealed interface DomainEvent {
+
+    UUID aggregateId();
+
+    // orders the events of one aggregate. It comes from a write the aggregate's row lock (or version check)
+    // serializes, so it follows the order the changes committed in, whichever instance made them
+    long aggregateVersion();
+
+    sealed interface PostEvent extends DomainEvent {
+        UUID postId();
+
+        // Post.version as the change leaves it
+        long version();
+
+        @Override
+        default UUID aggregateId() {
+            return postId();
+        }
+
+        @Override
+        default long aggregateVersion() {
+            return version();
+        }
+    }
+
+    // created as PUBLISHED, or a draft that was published
+    record PostPublished(UUID postId, long version) implements PostEvent {
+    }
+
+    // a published post that stays published was edited
+    record PostUpdated(UUID postId, int revision, long version) implements PostEvent {
+    }
+
+    // a published post went back to being a draft
+    record PostUnpublished(UUID postId, long version) implements PostEvent {
+    }
+
+    // a published post was deleted
+    record PostDeleted(UUID postId, long version) implements PostEvent {
+    }
+
+    // categories and tags are never changed, only created once and deleted once
+
+    record CategoryCreated(UUID categoryId, String name) implements DomainEvent {
+        @Override
+        public UUID aggregateId() {
+            return categoryId;
+        }
+
+        @Override
+        public long aggregateVersion() {
+            return 0;
+        }
+    }
+
+    record CategoryDeleted(UUID categoryId) implements DomainEvent {
+        @Override
+        public UUID aggregateId() {
+            return categoryId;
+        }
+
+        @Override
+        public long aggregateVersion() {
+            return 1;
+        }
+    }
+
+    record TagCreated(UUID tagId, String name) implements DomainEvent {
+        @Override
+        public UUID aggregateId() {
+            return tagId;
+        }
+
+        @Override
+        public long aggregateVersion() {
+            return 0;
+        }
+    }
+
+    record TagDeleted(UUID tagId) implements DomainEvent {
+        @Override
+        public UUID aggregateId() {
+            return tagId;
+        }
+
+        @Override
+        public long aggregateVersion() {
+            return 1;
+        }
+    }
+}
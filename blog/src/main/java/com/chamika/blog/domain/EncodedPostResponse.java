@@ -0,0 +1,46 @@
+package com.chamika.blog.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// The JSON of one post as sent to readers, plain and gzipped, built once per post version.
+// Plain heap arrays, so the cache's byte bound is the memory actually held. Never modify them
+public record EncodedPostResponse(byte[] identity, byte[] gzip) {
+
+    // an entry belongs to one version of a post, an update makes it unreachable rather than stale
+    public record Key(UUID id, LocalDateTime version) {
+    }
+
+    public static EncodedPostResponse of(byte[] json) {
+        return new EncodedPostResponse(json, gzip(json));
+    }
+
+    // plain JSON when the client did not ask for gzip
+    public byte[] body(boolean gzipped) {
+        return gzipped ? gzip : identity;
+    }
+
+    public int size() {
+        return identity.length + gzip.length;
+    }
+
+    public static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+        // compressed once and served many times, so the smallest output is worth the extra CPU
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.chamika.blog.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// one record of a bulk import, categories and tags are referenced by name
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportPostRequest {
+
+    private String title;
+
+    private String content;
+
+    private String categoryName;
+
+    @Builder.Default
+    private Set<String> tagNames = new HashSet<>();
+
+    private PostStatus status;
+}
@@ -0,0 +1,15 @@
+package com.chamika.blog.domain;
+
+import java.util.UUID;
+
+// outcome of one imported record: the new post id, or why it was rejected
+public record ImportPostResult(UUID id, String error) {
+
+    public static ImportPostResult created(UUID id) {
+        return new ImportPostResult(id, null);
+    }
+
+    public static ImportPostResult failed(String error) {
+        return new ImportPostResult(null, error);
+    }
+}
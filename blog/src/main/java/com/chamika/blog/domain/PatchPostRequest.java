@@ -0,0 +1,22 @@
+package com.chamika.blog.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PatchPostRequest {
+
+    // the revision the edits were made against, it must still be the post's current one
+    private Integer baseRevision;
+
+    @Builder.Default
+    private List<TextEdit> edits = new ArrayList<>();
+}
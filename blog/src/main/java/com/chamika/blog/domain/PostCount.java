@@ -0,0 +1,7 @@
+package com.chamika.blog.domain;
+
+import java.util.UUID;
+
+// one row of a GROUP BY count of published posts, keyed by category or tag id
+public record PostCount(UUID id, long count) {
+}
@@ -0,0 +1,22 @@
+package com.chamika.blog.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostPage {
+
+    @Builder.Default
+    private List<PostSummary> posts = new ArrayList<>();
+
+    // null when there are no more posts to fetch
+    private String nextCursor;
+}
@@ -0,0 +1,8 @@
+package com.chamika.blog.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// snippet is HTML: escaped post text with the matched terms wrapped in <mark>
+public record PostSearchHit(UUID id, String title, String snippet, float score, LocalDateTime createdAt) {
+}
@@ -0,0 +1,5 @@
+package com.chamika.blog.domain;
+
+// what an autosave checks and remembers of its post: only drafts take them, and only at this version
+public record PostState(PostStatus status, long version) {
+}
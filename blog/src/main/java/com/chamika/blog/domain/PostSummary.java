@@ -0,0 +1,44 @@
+package com.chamika.blog.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Read model for listing endpoints: everything a post card needs, without the TEXT content column.
+// Built by a JPQL constructor expression in PostRepository, tags are attached afterwards in one batch query.
+public record PostSummary(
+        UUID id,
+        String title,
+        String excerpt,
+        Integer readingTime,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        PostStatus status,
+        UUID authorId,
+        String authorName,
+        UUID categoryId,
+        String categoryName,
+        // only filled in by the most viewed query
+        Long viewCount,
+        List<PostTagSummary> tags
+) {
+
+    public PostSummary(UUID id, String title, String excerpt, Integer readingTime,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, PostStatus status,
+                       UUID authorId, String authorName, UUID categoryId, String categoryName) {
+        this(id, title, excerpt, readingTime, createdAt, updatedAt, status,
+                authorId, authorName, categoryId, categoryName, null, List.of());
+    }
+
+    public PostSummary(UUID id, String title, String excerpt, Integer readingTime,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, PostStatus status,
+                       UUID authorId, String authorName, UUID categoryId, String categoryName, Long viewCount) {
+        this(id, title, excerpt, readingTime, createdAt, updatedAt, status,
+                authorId, authorName, categoryId, categoryName, viewCount, List.of());
+    }
+
+    public PostSummary withTags(List<PostTagSummary> tags) {
+        return new PostSummary(id, title, excerpt, readingTime, createdAt, updatedAt, status,
+                authorId, authorName, categoryId, categoryName, viewCount, tags);
+    }
+}
@@ -0,0 +1,6 @@
+package com.chamika.blog.domain;
+
+import java.util.UUID;
+
+public record PostTagSummary(UUID postId, UUID tagId, String tagName) {
+}
@@ -0,0 +1,44 @@
+package com.chamika.blog.domain;
+
+import java.util.List;
+
+// Replaces deleteCount characters at offset with insert. Offsets count UTF-16 code units, the same
+// units as Java and JavaScript string indexes, so an editor can send them as it tracks them.
+public record TextEdit(int offset, int deleteCount, String insert) {
+
+    // every edit is against the same text, they come in order and do not overlap
+    public static String apply(String text, List<TextEdit> edits) {
+        StringBuilder result = new StringBuilder(text.length() + 64);
+        int copied = 0;
+        for (TextEdit edit : edits) {
+            if (edit.offset() < copied || edit.deleteCount() < 0 || edit.deleteCount() > text.length() - edit.offset()) {
+                throw new IllegalArgumentException("Edit at offset " + edit.offset() + " overlaps the previous edit or runs past the content");
+            }
+            result.append(text, copied, edit.offset());
+            if (edit.insert() != null) {
+                result.append(edit.insert());
+            }
+            copied = edit.offset() + edit.deleteCount();
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+
+    // the changed middle of the text as one edit, none when nothing changed
+    public static List<TextEdit> between(String before, String after) {
+        int prefix = 0;
+        int shorter = Math.min(before.length(), after.length());
+        while (prefix < shorter && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (prefix == before.length() && prefix == after.length()) {
+            return List.of();
+        }
+        return List.of(new TextEdit(prefix, before.length() - prefix - suffix,
+                after.substring(prefix, after.length() - suffix)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.chamika.blog.domain.dtos;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// the editor's current title and content, either may be left out. A draft in progress may still be
+// shorter than CreatePostRequestDto allows, only the upper bounds apply
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AutosaveDraftRequestDto {
+
+    @Size(max = 200, message = "Title must be at most {max} characters")
+    private String title;
+
+    @Size(max = 5000, message = "Content must be at most {max} characters")
+    private String content;
+}
@@ -0,0 +1,29 @@
+package com.chamika.blog.domain.dtos;
+
+import com.chamika.blog.domain.PostStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// one NDJSON line of the export, a superset of ImportPostRequestDto so an export can be imported again
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExportPostDto {
+    private UUID id;
+    private String title;
+    private String content;
+    private String category;
+    private List<String> tags;
+    private PostStatus status;
+    private String author;
+    private Integer readingTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.chamika.blog.domain.dtos;
+
+import com.chamika.blog.domain.PostStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// one NDJSON line of POST /api/v1/posts/import, same rules as CreatePostRequestDto
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportPostRequestDto {
+
+    @NotBlank(message = "Title is required")
+    @Size(min = 3, max = 200, message = "Title must be between {min} and {max} characters")
+    private String title;
+
+    @NotBlank(message = "content is required")
+    @Size(min = 10, max = 5000, message = "Content must be between the {min} and {max} characters")
+    private String content;
+
+    @NotBlank(message = "Category is required")
+    private String category;
+
+    // tags that do not exist yet are created
+    @Builder.Default
+    @Size(max = 10, message = "Maximum {max} tags allowed")
+    private Set<String> tags = new HashSet<>();
+
+    @NotNull(message = "Status is required")
+    private PostStatus status;
+}
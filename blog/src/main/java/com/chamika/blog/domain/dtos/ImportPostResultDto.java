@@ -0,0 +1,19 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// one NDJSON line of the import response, line is the 1-based line of the request body
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportPostResultDto {
+    private long line;
+    private UUID id;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.chamika.blog.domain.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// PATCH /api/v1/posts/{id}: edits to the content as it was at baseRevision, all offsets against that text
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PatchPostRequestDto {
+
+    @NotNull(message = "Base revision is required")
+    @PositiveOrZero(message = "Base revision must not be negative")
+    private Integer baseRevision;
+
+    @Builder.Default
+    @NotEmpty(message = "At least one edit is required")
+    @Size(max = 500, message = "Maximum {max} edits allowed")
+    private List<@Valid @NotNull TextEditDto> edits = new ArrayList<>();
+}
@@ -22,6 +22,8 @@ public class PostDto {
     private CategoryDto category;
     private Set<TagDto> tags;
     private Integer readingTime;
+    // send it back as the baseRevision of a PATCH
+    private Integer revision;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private PostStatus postStatus;
@@ -0,0 +1,25 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// data of a post-published event on GET /api/v1/posts/feed: enough to show the post in a list, the rest
+// is one GET /api/v1/posts/{id} away
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostFeedEventDto {
+    private UUID id;
+    private String title;
+    private String excerpt;
+    private UUID categoryId;
+    private List<UUID> tagIds;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostPageDto {
+    private List<PostSummaryDto> posts;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostRevisionDto {
+    private UUID postId;
+    private Integer revision;
+    private String content;
+}
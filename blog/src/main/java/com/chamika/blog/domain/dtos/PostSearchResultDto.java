@@ -0,0 +1,21 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostSearchResultDto {
+    private UUID id;
+    private String title;
+    private String snippet;
+    private float score;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.chamika.blog.domain.dtos;
+
+import com.chamika.blog.domain.PostStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+// Same shape as PostDto but with an excerpt in place of the full content
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostSummaryDto {
+    private UUID id;
+    private String title;
+    private String excerpt;
+    private AuthorDto author;
+    private CategoryDto category;
+    private Set<TagDto> tags;
+    private Integer readingTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private PostStatus postStatus;
+    // only in the most viewed listing
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long viewCount;
+}
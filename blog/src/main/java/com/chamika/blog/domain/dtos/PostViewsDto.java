@@ -0,0 +1,18 @@
+package com.chamika.blog.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostViewsDto {
+    private UUID postId;
+    // may trail the real count by one view flush interval
+    private Long viewCount;
+}
@@ -14,5 +14,5 @@ import java.util.UUID;
 public class TagDto {
     private UUID id;
     private String name;
-    private String postCount;
+    private long postCount;
 }
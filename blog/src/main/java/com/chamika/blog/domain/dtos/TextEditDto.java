@@ -0,0 +1,28 @@
+package com.chamika.blog.domain.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TextEditDto {
+
+    @NotNull(message = "Offset is required")
+    @PositiveOrZero(message = "Offset must not be negative")
+    private Integer offset;
+
+    @Builder.Default
+    @PositiveOrZero(message = "Delete count must not be negative")
+    private int deleteCount = 0;
+
+    @Builder.Default
+    @Size(max = 5000, message = "Inserted text must be at most {max} characters")
+    private String insert = "";
+}
@@ -2,13 +2,19 @@ package com.chamika.blog.domain.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
+// read on every post write and category filter, changed rarely, kept in the second-level cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categories")
 @Table(name = "categories")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +30,12 @@ public class Category {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // number of PUBLISHED posts in this category, kept in step by PostServiceImpl so listings never count posts
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long publishedPostCount = 0L;
+
     @OneToMany(mappedBy = "category")
     private List<Post> posts = new ArrayList<>();
 
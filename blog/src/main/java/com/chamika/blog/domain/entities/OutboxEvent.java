@@ -0,0 +1,63 @@
+package com.chamika.blog.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+// One DomainEvent waiting to be handled, inserted by the transaction that made the change it describes.
+@Entity
+@Table(name = "outbox_events")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // events of the same aggregate are handled one after another, in aggregateVersion order
+    @Column(nullable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false)
+    private long aggregateVersion;
+
+    // simple name of the DomainEvent record, payload is that record as JSON
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    @Column(nullable = false, length = 1000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // null until the first failed attempt
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime failedAt;
+
+    // set while a dispatcher is handling the event, other instances leave it alone until then
+    private LocalDateTime claimedUntil;
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboxEvent that = (OutboxEvent) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
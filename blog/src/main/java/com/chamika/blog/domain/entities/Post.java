@@ -10,7 +10,15 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table(name = "posts")
+// indexes match the keyset order (created_at, id) of the listing queries in PostRepository.
+// the schema itself comes from the migrations in db/migration, keep both in step
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_posts_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_posts_category_status_created_at_id", columnList = "category_id, status, created_at, id"),
+        @Index(name = "idx_posts_author_status_created_at_id", columnList = "author_id, status, created_at, id"),
+        @Index(name = "idx_posts_publish_seq", columnList = "publish_seq")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -25,10 +33,15 @@ public class Post {
     @Column(nullable = false)
     private String title;
 
-    //column definition = "TEXT" will accomadate database if the text size is increased
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // stored compressed in post_bodies, see PostBody. Set by the single-post read and write paths and by
+    // the jobs that need the text, null on posts loaded for anything else
+    @Transient
     private String content;
 
+    // plain-text preview of the content, stored at write time so listings never read the TEXT column
+    @Column(length = 500)
+    private String excerpt;
+
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private PostStatus status;
@@ -36,6 +49,18 @@ public class Post {
     @Column(nullable = false)
     private Integer readingTime;
 
+    // content revision, moves on only when the content changes. History is in post_revisions
+    @Column(nullable = false)
+    private int revision;
+
+    // moves on with every update of the row, content or not. A write that loaded an older version fails
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // position in the live feed, taken each time the post becomes PUBLISHED. See PostRepositoryCustom.reservePublishSeqs
+    private Long publishSeq;
+
 
     //many post have one user
     //FetchType.LAZY  is increase performance by loading authors when it explicitly accessed
@@ -51,7 +76,8 @@ public class Post {
     @JoinTable(
             name = "post_tags",
             joinColumns = @JoinColumn(name = "post_id"),
-            inverseJoinColumns = @JoinColumn(name = "tag_id")
+            inverseJoinColumns = @JoinColumn(name = "tag_id"),
+            indexes = @Index(name = "idx_post_tags_tag_id_post_id", columnList = "tag_id, post_id")
     )
     // set will avoid duplication
     private Set<Tag> tags = new HashSet<>();
@@ -66,12 +92,12 @@ public class Post {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Post post = (Post) o;
-        return Objects.equals(id, post.id) && Objects.equals(title, post.title) && Objects.equals(content, post.content) && status == post.status && Objects.equals(readingTime, post.readingTime) && Objects.equals(createdAt, post.createdAt) && Objects.equals(updatedAt, post.updatedAt);
+        return Objects.equals(id, post.id) && Objects.equals(title, post.title) && status == post.status && Objects.equals(readingTime, post.readingTime) && Objects.equals(createdAt, post.createdAt) && Objects.equals(updatedAt, post.updatedAt);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, content, status, readingTime, createdAt, updatedAt);
+        return Objects.hash(id, title, status, readingTime, createdAt, updatedAt);
     }
 
 
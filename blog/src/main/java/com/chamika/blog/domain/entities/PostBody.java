@@ -0,0 +1,72 @@
+package com.chamika.blog.domain.entities;
+
+import com.github.luben.zstd.Zstd;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+
+// The content of a post, in its own table so loading Post rows (export batches, the search catch-up,
+// category and tag traversals) never drags bodies along. Only the single-post read and write paths and
+// the jobs that need the text load it. Stored as zstd-compressed UTF-8 with the uncompressed length
+// next to it, so decompressing allocates exactly one buffer of the right size.
+@Entity
+@Table(name = "post_bodies")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PostBody {
+
+    // fast on both sides, bodies are read far more often than they are written
+    private static final int COMPRESSION_LEVEL = 3;
+
+    @Id
+    @Column(name = "post_id")
+    private UUID postId;
+
+    // shares the post's id, so a body is found by the post id alone
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "post_id")
+    private Post post;
+
+    // UTF-8 bytes before compression
+    @Column(nullable = false)
+    private int length;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    public static PostBody of(Post post, String content) {
+        PostBody body = new PostBody();
+        body.setPost(post);
+        body.setContent(content);
+        return body;
+    }
+
+    public String getContent() {
+        return new String(Zstd.decompress(data, length), StandardCharsets.UTF_8);
+    }
+
+    public void setContent(String content) {
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        this.length = utf8.length;
+        this.data = Zstd.compress(utf8, COMPRESSION_LEVEL);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PostBody that = (PostBody) o;
+        return Objects.equals(postId, that.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(postId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.chamika.blog.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+// One revision of a post's content, either a full snapshot or the edits against the revision before it.
+// Only ever inserted, and removed with the post by the cascading foreign key.
+@Entity
+@Table(name = "post_revisions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_post_revisions_post_id_revision", columnNames = {"post_id", "revision"})
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PostRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "post_id", nullable = false)
+    private UUID postId;
+
+    @Column(nullable = false)
+    private int revision;
+
+    @Column(nullable = false)
+    private boolean snapshot;
+
+    // deflated, see PostRevisionServiceImpl for the format
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PostRevision that = (PostRevision) o;
+        return Objects.equals(postId, that.postId) && revision == that.revision;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(postId, revision);
+    }
+
+    @PrePersist
+    protected void onCreate(){
+        this.createdAt = LocalDateTime.now();
+    }
+}
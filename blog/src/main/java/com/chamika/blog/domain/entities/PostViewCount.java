@@ -0,0 +1,40 @@
+package com.chamika.blog.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+// Views of a post, kept out of the posts table so flushing counts never locks or rewrites the post row.
+// Written only by the batched upsert in PostViewServiceImpl, there is no foreign key to posts.
+@Entity
+@Table(name = "post_views", indexes = {
+        @Index(name = "idx_post_views_view_count", columnList = "view_count")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PostViewCount {
+
+    @Id
+    @Column(name = "post_id")
+    private UUID postId;
+
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PostViewCount that = (PostViewCount) o;
+        return Objects.equals(postId, that.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(postId);
+    }
+}
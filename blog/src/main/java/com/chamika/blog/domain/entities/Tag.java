@@ -2,13 +2,19 @@ package com.chamika.blog.domain.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+// read on every post write and tag filter, changed rarely, kept in the second-level cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tags")
 @Table(name = "tags")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +30,12 @@ public class Tag {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // number of PUBLISHED posts in this tag, kept in step by PostServiceImpl so listings never count posts
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long publishedPostCount = 0L;
+
     @ManyToMany(mappedBy = "tags")
     private Set<Post> posts = new HashSet<>();
 
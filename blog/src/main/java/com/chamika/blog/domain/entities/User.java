@@ -3,6 +3,8 @@ package com.chamika.blog.domain.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,7 +13,10 @@ import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
+// read on every authenticated write and drafts listing, kept in the second-level cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 @NoArgsConstructor
 @AllArgsConstructor
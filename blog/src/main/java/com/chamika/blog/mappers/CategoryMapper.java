@@ -1,32 +1,17 @@
 package com.chamika.blog.mappers;
 
-import com.chamika.blog.domain.PostStatus;
 import com.chamika.blog.domain.dtos.CategoryDto;
 import com.chamika.blog.domain.dtos.CreateCategoryRequest;
 import com.chamika.blog.domain.entities.Category;
-import com.chamika.blog.domain.entities.Post;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.Named;
 import org.mapstruct.ReportingPolicy;
 
-import java.util.List;
-
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface CategoryMapper {
 
-    @Mapping(target = "postCount", source = "posts", qualifiedByName = "calculatePostCount")
+    @Mapping(target = "postCount", source = "publishedPostCount")
     CategoryDto toDto(Category category);
 
     Category toEntity(CreateCategoryRequest createCategoryRequest);
-
-    @Named("calculatePostCount")
-    default long calculatePostCount(List<Post> posts){
-        if(null == posts){
-            return 0;
-        }
-        return posts.stream()
-                .filter(post -> PostStatus.PUBLISHED.equals(post.getStatus()))
-                .count();
-    }
 }
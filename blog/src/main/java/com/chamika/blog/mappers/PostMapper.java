@@ -1,15 +1,32 @@
 package com.chamika.blog.mappers;
 
 import com.chamika.blog.domain.CreatePostRequest;
+import com.chamika.blog.domain.ImportPostRequest;
+import com.chamika.blog.domain.PatchPostRequest;
+import com.chamika.blog.domain.PostPage;
+import com.chamika.blog.domain.PostSearchHit;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.PostTagSummary;
 import com.chamika.blog.domain.UpdatePostRequest;
 import com.chamika.blog.domain.dtos.CreatePostRequestDto;
+import com.chamika.blog.domain.dtos.ExportPostDto;
+import com.chamika.blog.domain.dtos.ImportPostRequestDto;
+import com.chamika.blog.domain.dtos.PatchPostRequestDto;
+import com.chamika.blog.domain.dtos.PostFeedEventDto;
 import com.chamika.blog.domain.dtos.PostDto;
+import com.chamika.blog.domain.dtos.PostPageDto;
+import com.chamika.blog.domain.dtos.PostSearchResultDto;
+import com.chamika.blog.domain.dtos.PostSummaryDto;
+import com.chamika.blog.domain.dtos.TagDto;
 import com.chamika.blog.domain.dtos.UpdatePostRequestDto;
 import com.chamika.blog.domain.entities.Post;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 
+import java.util.List;
+import java.util.UUID;
+
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface PostMapper {
 
@@ -18,9 +35,39 @@ public interface PostMapper {
     @Mapping(target = "tags", source = "tags")
     PostDto toDto(Post post);
 
+    @Mapping(target = "author.id", source = "authorId")
+    @Mapping(target = "author.name", source = "authorName")
+    @Mapping(target = "category.id", source = "categoryId")
+    @Mapping(target = "category.name", source = "categoryName")
+    @Mapping(target = "postStatus", source = "status")
+    PostSummaryDto toSummaryDto(PostSummary postSummary);
+
+    @Mapping(target = "id", source = "tagId")
+    @Mapping(target = "name", source = "tagName")
+    TagDto toTagDto(PostTagSummary postTagSummary);
+
+    PostPageDto toPageDto(PostPage postPage);
+
+    PostSearchResultDto toSearchResultDto(PostSearchHit postSearchHit);
+
    
     CreatePostRequest toCreatePostRequest(CreatePostRequestDto dto);
 
+    @Mapping(target = "categoryName", source = "category")
+    @Mapping(target = "tagNames", source = "tags")
+    ImportPostRequest toImportPostRequest(ImportPostRequestDto dto);
+
+    @Mapping(target = "category", source = "post.category.name")
+    @Mapping(target = "author", source = "post.author.name")
+    @Mapping(target = "tags", source = "tagNames")
+    ExportPostDto toExportDto(Post post, List<String> tagNames);
+
+    @Mapping(target = "categoryId", source = "post.category.id")
+    @Mapping(target = "tagIds", source = "tagIds")
+    PostFeedEventDto toFeedEventDto(Post post, List<UUID> tagIds);
+
     @Mapping(target = "status", source = "status")
     UpdatePostRequest toUpdatePostRequest(UpdatePostRequestDto dto);
+
+    PatchPostRequest toPatchPostRequest(PatchPostRequestDto dto);
 }
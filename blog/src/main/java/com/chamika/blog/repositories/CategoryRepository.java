@@ -1,25 +1,31 @@
 package com.chamika.blog.repositories;
 
+import com.chamika.blog.domain.PostCount;
+import com.chamika.blog.domain.PostStatus;
 import com.chamika.blog.domain.entities.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category,UUID> {
-
-
-//    will return:
-//    A list of Category entities (c)
-//    With their posts collection eagerly loaded
-//    Eager loading is a strategy where associated entities are loaded immediately
-//    along with the parent entity, rather than being loaded on-demand (lazy loading
-    @Query("SELECT c FROM Category c LEFT JOIN FETCH c.posts")
-    List<Category> findAllWithPostCount();
+public interface CategoryRepository extends JpaRepository<Category,UUID>, CategoryRepositoryCustom {
 
+    // published posts per category counted in the database, to check or reconcile publishedPostCount against
+    @Query("SELECT new com.chamika.blog.domain.PostCount(p.category.id, COUNT(p)) " +
+            "FROM Post p WHERE p.status = :status GROUP BY p.category.id")
+    List<PostCount> countPostsByCategory(PostStatus status);
 
+    // query cache: results are dropped whenever the categories table is written through Hibernate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByNameIgnoreCase(String name);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findByNameIn(Collection<String> names);
 }
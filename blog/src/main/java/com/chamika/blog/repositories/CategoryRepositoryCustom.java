@@ -0,0 +1,9 @@
+package com.chamika.blog.repositories;
+
+import java.util.UUID;
+
+public interface CategoryRepositoryCustom {
+
+    // adds delta to the category's publishedPostCount, must run in a transaction
+    void adjustPublishedPostCount(UUID id, long delta);
+}
@@ -0,0 +1,29 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.entities.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.UUID;
+
+// The counter is changed on the entity rather than with a bulk UPDATE: Hibernate drops the whole categories
+// region from the second-level cache for a bulk UPDATE, for an entity update only that category's entry.
+public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void adjustPublishedPostCount(UUID id, long delta) {
+        // a category persisted in this transaction has to be in the database before it can be re-read
+        entityManager.flush();
+        Category category = entityManager.find(Category.class, id);
+        if (category != null) {
+            // re-read under the row lock, the copy in the persistence context may predate another writer's
+            // change, and concurrent writers then never lose an increment
+            entityManager.refresh(category, LockModeType.PESSIMISTIC_WRITE);
+            category.setPublishedPostCount(category.getPublishedPostCount() + delta);
+        }
+    }
+}
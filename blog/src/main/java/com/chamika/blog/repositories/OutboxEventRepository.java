@@ -0,0 +1,61 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // The oldest events that are due and not claimed, locked until the caller's transaction ends: rows another
+    // instance is claiming right now are skipped rather than waited for. The caller claims them with claim()
+    // before it commits. Events behind one of their aggregate that waits for a retry are not due either.
+    @Query(value = """
+            SELECT * FROM outbox_events e
+            WHERE e.failed_at IS NULL
+              AND (e.next_attempt_at IS NULL OR e.next_attempt_at <= :now)
+              AND (e.claimed_until IS NULL OR e.claimed_until <= :now)
+              AND NOT EXISTS (SELECT 1 FROM outbox_events w
+                              WHERE w.aggregate_id = e.aggregate_id AND w.failed_at IS NULL
+                                AND w.next_attempt_at > :now AND w.aggregate_version <= e.aggregate_version)
+            ORDER BY e.created_at, e.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<OutboxEvent> findDueForClaim(LocalDateTime now, int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil WHERE e.id IN :ids")
+    int claim(Collection<UUID> ids, LocalDateTime claimedUntil);
+
+    // claimed events that were not handled go back to the other instances
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids")
+    int release(Collection<UUID> ids);
+
+    // pending events of these aggregates that were not claimed with the given ones, see DomainEventServiceImpl
+    @Query("SELECT e FROM OutboxEvent e WHERE e.aggregateId IN :aggregateIds AND e.failedAt IS NULL " +
+            "AND e.id NOT IN :claimedIds")
+    List<OutboxEvent> findUnclaimedPending(Collection<UUID> aggregateIds, Collection<UUID> claimedIds);
+
+    Optional<OutboxEvent> findFirstByFailedAtIsNullOrderByCreatedAtAscIdAsc();
+
+    List<OutboxEvent> findByAggregateIdOrderByCreatedAtAscIdAsc(UUID aggregateId);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.claimedUntil = NULL WHERE e.id IN :ids")
+    int scheduleRetry(Collection<UUID> ids, LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.failedAt = :failedAt, " +
+            "e.claimedUntil = NULL WHERE e.id IN :ids")
+    int markFailed(Collection<UUID> ids, LocalDateTime failedAt);
+}
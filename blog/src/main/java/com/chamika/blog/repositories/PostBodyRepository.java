@@ -0,0 +1,23 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.entities.PostBody;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PostBodyRepository extends JpaRepository<PostBody, UUID> {
+
+    // single-post read and update: the body and the post with everything PostMapper.toDto reads, in one query
+    @EntityGraph(attributePaths = {"post", "post.author", "post.category", "post.tags"})
+    Optional<PostBody> findWithPostByPostId(UUID postId);
+
+    // writes that change the body and the post row together, like the autosave flush
+    @EntityGraph(attributePaths = {"post"})
+    List<PostBody> findAllWithPostByPostIdIn(Collection<UUID> postIds);
+}
@@ -1,21 +1,66 @@
 package com.chamika.blog.repositories;
 
+import com.chamika.blog.domain.PostState;
 import com.chamika.blog.domain.PostStatus;
-import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.PostTagSummary;
 import com.chamika.blog.domain.entities.Post;
-import com.chamika.blog.domain.entities.Tag;
-import com.chamika.blog.domain.entities.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, UUID> {
-    List<Post> findAllByStatusAndCategoryAndTagsContaining(PostStatus status, Category category, Tag tag);
-    List<Post> findAllByStatusAndCategory(PostStatus status, Category category);
-    List<Post> findAllByStatusAndTagsContaining(PostStatus status, Tag tag);
-    List<Post> findAllByStatus(PostStatus status);
-    List<Post> findAllByAuthorAndStatus(User user, PostStatus status);
+public interface PostRepository extends JpaRepository<Post, UUID>, PostRepositoryCustom {
+
+    // PostMapper.toDto reads author, category and tags, so load them in the same query.
+    // open-in-view is off, anything not in the graph would fail once the transaction has ended
+    @EntityGraph(attributePaths = {"author", "category", "tags"})
+    Optional<Post> findWithAssociationsById(UUID id);
+
+    // version of a single post for conditional GET, no entity is loaded
+    @Query("SELECT p.updatedAt FROM Post p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(UUID id);
+
+    // only drafts take autosaves, checked when a post's first autosave is buffered
+    @Query("SELECT new com.chamika.blog.domain.PostState(p.status, p.version) FROM Post p WHERE p.id = :id")
+    Optional<PostState> findStateById(UUID id);
+
+    // posts changed since the search index was last committed, scrolled in batches
+    Window<Post> findAllByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(
+            LocalDateTime updatedAt, ScrollPosition position, Limit limit);
+
+    // posts published after the live feed's cursor, in publish order
+    List<Post> findByPublishSeqGreaterThanOrderByPublishSeqAsc(long publishSeq, Limit limit);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids AND p.status = :status")
+    List<UUID> findIdsByIdInAndStatus(Collection<UUID> ids, PostStatus status);
+
+    // tag ids/names for a whole page of summaries in one query
+    @Query("""
+            SELECT new com.chamika.blog.domain.PostTagSummary(p.id, t.id, t.name)
+            FROM Post p JOIN p.tags t
+            WHERE p.id IN :postIds
+            """)
+    List<PostTagSummary> findTagSummariesByPostIds(Collection<UUID> postIds);
+
+    // published posts by persisted views, tags are attached afterwards like the other listings
+    @Query("""
+            SELECT new com.chamika.blog.domain.PostSummary(
+                p.id, p.title, p.excerpt, p.readingTime, p.createdAt, p.updatedAt, p.status,
+                a.id, a.name, c.id, c.name, v.viewCount)
+            FROM PostViewCount v JOIN Post p ON p.id = v.postId JOIN p.author a JOIN p.category c
+            WHERE p.status = :status
+            ORDER BY v.viewCount DESC, p.id DESC
+            """)
+    List<PostSummary> findMostViewed(PostStatus status, Limit limit);
 }
@@ -0,0 +1,32 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.PostCursor;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.entities.Post;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface PostRepositoryCustom {
+
+    // Keyset page of summaries ordered by (createdAt desc, id desc).
+    // authorId, categoryId, tagId and after are optional, null means "no filter" / "first page"
+    List<PostSummary> findSummaries(PostStatus status, UUID authorId, UUID categoryId, UUID tagId,
+                                    PostCursor after, int limit);
+
+    // Every matching post oldest first, with author and category, read fetchSize rows at a time.
+    // Must be consumed and closed inside a transaction; tags are not fetched.
+    // categoryId, tagId, from (inclusive) and to (exclusive) are optional
+    Stream<Post> streamForExport(PostStatus status, UUID categoryId, UUID tagId,
+                                 LocalDateTime from, LocalDateTime to, int fetchSize);
+
+    // Takes the next count publish_seq values and returns the last one. The counter row stays locked until
+    // the caller's transaction commits, so published posts become visible in publish_seq order
+    long reservePublishSeqs(int count);
+
+    // the last publish_seq taken by a committed transaction
+    long findLastPublishSeq();
+}
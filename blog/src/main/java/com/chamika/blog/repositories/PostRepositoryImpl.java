@@ -0,0 +1,133 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.PostCursor;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.entities.Post;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Spring Data picks this up as the implementation of PostRepositoryCustom (the "Impl" suffix).
+// The query text is assembled from only the filters in use, so each variant can use its own index
+// instead of one "(:param IS NULL OR ...)" query that the planner cannot optimise.
+public class PostRepositoryImpl implements PostRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PostSummary> findSummaries(PostStatus status, UUID authorId, UUID categoryId, UUID tagId,
+                                           PostCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.chamika.blog.domain.PostSummary(
+                    p.id, p.title, p.excerpt, p.readingTime, p.createdAt, p.updatedAt, p.status,
+                    a.id, a.name, c.id, c.name)
+                FROM Post p JOIN p.author a JOIN p.category c
+                """);
+        if (tagId != null) {
+            jpql.append(" JOIN p.tags t");
+        }
+        jpql.append(" WHERE p.status = :status");
+        if (authorId != null) {
+            jpql.append(" AND p.author.id = :authorId");
+        }
+        if (categoryId != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+        }
+        if (tagId != null) {
+            jpql.append(" AND t.id = :tagId");
+        }
+        if (after != null) {
+            jpql.append(" AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))");
+        }
+        jpql.append(" ORDER BY p.createdAt DESC, p.id DESC");
+
+        TypedQuery<PostSummary> query = entityManager.createQuery(jpql.toString(), PostSummary.class)
+                .setParameter("status", status)
+                .setMaxResults(limit);
+        if (authorId != null) {
+            query.setParameter("authorId", authorId);
+        }
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (tagId != null) {
+            query.setParameter("tagId", tagId);
+        }
+        if (after != null) {
+            query.setParameter("createdAt", after.createdAt());
+            query.setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<Post> streamForExport(PostStatus status, UUID categoryId, UUID tagId,
+                                        LocalDateTime from, LocalDateTime to, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.category");
+        if (tagId != null) {
+            jpql.append(" JOIN p.tags t");
+        }
+        jpql.append(" WHERE p.status = :status");
+        if (categoryId != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+        }
+        if (tagId != null) {
+            jpql.append(" AND t.id = :tagId");
+        }
+        if (from != null) {
+            jpql.append(" AND p.createdAt >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND p.createdAt < :to");
+        }
+        jpql.append(" ORDER BY p.createdAt ASC, p.id ASC");
+
+        // a server side cursor instead of the whole result in memory (PostgreSQL needs the transaction for that),
+        // and no snapshots for dirty checking
+        TypedQuery<Post> query = entityManager.createQuery(jpql.toString(), Post.class)
+                .setParameter("status", status)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (tagId != null) {
+            query.setParameter("tagId", tagId);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        return query.getResultStream();
+    }
+
+    @Override
+    public long reservePublishSeqs(int count) {
+        // a native statement without its table named would invalidate every second-level cache region
+        entityManager.createNativeQuery("UPDATE publish_sequence SET last_value = last_value + :count")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("publish_sequence")
+                .setParameter("count", count)
+                .executeUpdate();
+        return findLastPublishSeq();
+    }
+
+    @Override
+    public long findLastPublishSeq() {
+        return ((Number) entityManager.createNativeQuery("SELECT last_value FROM publish_sequence")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("publish_sequence")
+                .getSingleResult()).longValue();
+    }
+}
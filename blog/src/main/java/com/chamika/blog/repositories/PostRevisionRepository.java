@@ -0,0 +1,25 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.entities.PostRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PostRevisionRepository extends JpaRepository<PostRevision, UUID> {
+
+    // the latest snapshot at or before the revision and every delta after it, oldest first.
+    // one range scan of the (post_id, revision) unique index
+    @Query("""
+            SELECT r FROM PostRevision r
+            WHERE r.postId = :postId AND r.revision <= :revision
+            AND r.revision >= (
+                SELECT MAX(s.revision) FROM PostRevision s
+                WHERE s.postId = :postId AND s.snapshot = true AND s.revision <= :revision)
+            ORDER BY r.revision
+            """)
+    List<PostRevision> findChainToRevision(UUID postId, int revision);
+}
@@ -0,0 +1,20 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.entities.PostViewCount;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PostViewCountRepository extends JpaRepository<PostViewCount, UUID> {
+
+    // read on every post view, the cache entry lives about as long as a flush interval
+    @Cacheable(value = CacheConfig.VIEW_COUNTS, key = "#postId")
+    @Query("SELECT v.viewCount FROM PostViewCount v WHERE v.postId = :postId")
+    Optional<Long> findViewCountByPostId(UUID postId);
+}
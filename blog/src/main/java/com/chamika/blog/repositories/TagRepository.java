@@ -1,8 +1,13 @@
 package com.chamika.blog.repositories;
 
+import com.chamika.blog.domain.PostCount;
+import com.chamika.blog.domain.PostStatus;
 import com.chamika.blog.domain.entities.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,11 +15,14 @@ import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag, UUID> {
-
-    @Query("SELECT t FROM Tag t LEFT JOIN FETCH t.posts")
-    List<Tag> findAllWithPostCount();
+public interface TagRepository extends JpaRepository<Tag, UUID>, TagRepositoryCustom {
 
+    // published posts per tag counted in the database, to check or reconcile publishedPostCount against
+    @Query("SELECT new com.chamika.blog.domain.PostCount(t.id, COUNT(p)) " +
+            "FROM Post p JOIN p.tags t WHERE p.status = :status GROUP BY t.id")
+    List<PostCount> countPostsByTag(PostStatus status);
 
+    // query cache: results are dropped whenever the tags table is written through Hibernate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tag> findByNameIn(Set<String> names);
 }
@@ -0,0 +1,10 @@
+package com.chamika.blog.repositories;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface TagRepositoryCustom {
+
+    // adds delta to the publishedPostCount of every tag in ids, must run in a transaction
+    void adjustPublishedPostCount(Collection<UUID> ids, long delta);
+}
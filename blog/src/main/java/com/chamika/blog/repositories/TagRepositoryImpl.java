@@ -0,0 +1,30 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.entities.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.UUID;
+
+// Like CategoryRepositoryImpl: changed on the entities, so only their entries leave the second-level cache
+public class TagRepositoryImpl implements TagRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void adjustPublishedPostCount(Collection<UUID> ids, long delta) {
+        entityManager.flush();
+        // in id order, so two writers sharing tags lock them in the same order
+        for (UUID id : new TreeSet<>(ids)) {
+            Tag tag = entityManager.find(Tag.class, id);
+            if (tag != null) {
+                entityManager.refresh(tag, LockModeType.PESSIMISTIC_WRITE);
+                tag.setPublishedPostCount(tag.getPublishedPostCount() + delta);
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.chamika.blog.repositories;
 
 import com.chamika.blog.domain.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,5 +13,7 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User,UUID> {
 
+     // every login, served from the query cache and the User region once seen
+     @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
      Optional<User> findByEmail(String email);
 }
@@ -58,6 +58,20 @@ public class BlogUserDetails implements UserDetails {
     public UUID getId() {
         return user.getId();
     }
+
+    public String getName() {
+        return user.getName();
+    }
+
+    // Principal rebuilt from the claims of a verified token, no database round trip.
+    // The User is never persisted and carries no password.
+    public static BlogUserDetails fromTokenClaims(UUID id, String email, String name) {
+        return new BlogUserDetails(User.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .build());
+    }
 }
 
 
@@ -5,11 +5,12 @@ import com.chamika.blog.domain.entities.User;
 import com.chamika.blog.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 @RequiredArgsConstructor
-public class BlogUserDetailsService implements UserDetailsService {
+public class BlogUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     @Override
@@ -19,6 +20,15 @@ public class BlogUserDetailsService implements UserDetailsService {
 
         return new BlogUserDetails(user);
     }
+
+    // called by Spring Security after a successful login whose stored hash was made with another work factor
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not Found with Email" + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return new BlogUserDetails(userRepository.save(user));
+    }
 }
 
 
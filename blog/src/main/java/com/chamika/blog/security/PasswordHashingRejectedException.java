@@ -0,0 +1,9 @@
+package com.chamika.blog.security;
+
+// every password hashing thread is busy and the queue in front of them is full, see BoundedPasswordEncoder
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many sign-ins at the moment, try again shortly");
+    }
+}
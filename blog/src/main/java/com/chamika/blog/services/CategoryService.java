@@ -4,6 +4,7 @@ package com.chamika.blog.services;
 import com.chamika.blog.domain.entities.Category;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface CategoryService {
@@ -11,6 +12,8 @@ public interface CategoryService {
     Category createCategory(Category category);
     void deleteCategory(UUID id);
     Category getCategoryByID(UUID id);
+    List<Category> getCategoriesByNames(Set<String> names);
+    void adjustPublishedPostCount(UUID id, long delta);
 
 
 }
@@ -0,0 +1,13 @@
+package com.chamika.blog.services;
+
+import com.chamika.blog.domain.DomainEvent;
+
+import java.util.List;
+
+// Implemented by the beans that keep derived state up to date, called by DomainEventServiceImpl after
+// the events' transaction committed, on one of the dispatcher threads. The events of one aggregate come
+// in the order they were published, a batch may mix aggregates. Delivery is at least once: a batch that
+// throws is delivered again later, so handling it twice must be harmless.
+public interface DomainEventHandler {
+    void handle(List<DomainEvent> events);
+}
@@ -0,0 +1,14 @@
+package com.chamika.blog.services;
+
+import com.chamika.blog.domain.DomainEvent;
+
+import java.util.List;
+
+public interface DomainEventService {
+    // only inside the transaction of the change the event describes
+    void publish(DomainEvent event);
+    void publishAll(List<? extends DomainEvent> events);
+    // hands every due event to the handlers and returns how many were delivered. Runs on its own after
+    // each commit and on an interval, callers only need it to wait for delivery
+    int dispatch();
+}
@@ -0,0 +1,13 @@
+package com.chamika.blog.services;
+
+import java.util.UUID;
+
+public interface DraftAutosaveService {
+    // buffered in memory, the latest title and content of a draft win. null leaves a field as it is
+    void autosave(UUID postId, String title, String content);
+    // writes the post's pending autosave now, before an explicit save or a read of the post
+    void flush(UUID postId);
+    // writes every pending autosave in one batch
+    void flush();
+    void discard(UUID postId);
+}
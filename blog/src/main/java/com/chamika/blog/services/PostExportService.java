@@ -0,0 +1,12 @@
+package com.chamika.blog.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface PostExportService {
+    // writes every matching published post as one NDJSON line, returns how many were written
+    long exportPublishedPosts(UUID categoryId, UUID tagId, LocalDateTime from, LocalDateTime to,
+                              OutputStream out) throws IOException;
+}
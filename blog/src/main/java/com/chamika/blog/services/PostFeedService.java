@@ -0,0 +1,11 @@
+package com.chamika.blog.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+public interface PostFeedService {
+    // categoryId and tagId narrow the feed, null for every post. lastEventId is the id of the last event a
+    // reconnecting client saw, the events it missed since are sent first
+    SseEmitter subscribe(UUID categoryId, UUID tagId, Long lastEventId);
+}
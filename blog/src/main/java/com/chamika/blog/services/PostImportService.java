@@ -0,0 +1,12 @@
+package com.chamika.blog.services;
+
+import com.chamika.blog.domain.entities.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface PostImportService {
+    // reads NDJSON posts and writes one NDJSON result per record as each chunk is committed
+    void importPosts(User author, InputStream ndjson, OutputStream results) throws IOException;
+}
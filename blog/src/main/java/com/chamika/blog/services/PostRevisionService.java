@@ -0,0 +1,16 @@
+package com.chamika.blog.services;
+
+import com.chamika.blog.domain.TextEdit;
+import com.chamika.blog.domain.entities.Post;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PostRevisionService {
+    // the first revision of new posts, a full copy of their content
+    void recordInitialRevisions(List<Post> posts);
+    // the post is already at its new revision and content, the edits take the previous content to it
+    void recordRevision(Post post, List<TextEdit> edits);
+    // rebuilt from the nearest snapshot at or before the revision
+    String getContentAtRevision(UUID postId, int revision);
+}
@@ -1,18 +1,31 @@
 package com.chamika.blog.services;
 
 import com.chamika.blog.domain.CreatePostRequest;
+import com.chamika.blog.domain.ImportPostRequest;
+import com.chamika.blog.domain.ImportPostResult;
+import com.chamika.blog.domain.PatchPostRequest;
+import com.chamika.blog.domain.PostPage;
+import com.chamika.blog.domain.PostSummary;
 import com.chamika.blog.domain.UpdatePostRequest;
 import com.chamika.blog.domain.entities.Post;
 import com.chamika.blog.domain.entities.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface PostService {
     Post getPost(UUID id);
-    List<Post> getAllPosts(UUID categoryId, UUID tagId);
-    List<Post> getDraftPosts(User user);
+    LocalDateTime getPostVersion(UUID id);
+    PostPage getAllPosts(UUID categoryId, UUID tagId, String cursor, int limit);
+    PostPage getDraftPosts(User user, String cursor, int limit);
+    // by views flushed to the database so far
+    List<PostSummary> getMostViewedPosts(int limit);
     Post createPost(User user, CreatePostRequest createPostRequest);
     Post updatePost(UUID id, UpdatePostRequest updatePostRequest);
+    // applies text edits to the content, only when it is still at the request's base revision
+    Post patchPost(UUID id, PatchPostRequest patchPostRequest);
     void deletePost(UUID id);
+    // one chunk of a bulk import in a single transaction, results are in the order of the requests
+    List<ImportPostResult> importPosts(User author, List<ImportPostRequest> importPostRequests);
 }
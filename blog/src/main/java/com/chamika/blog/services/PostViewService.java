@@ -0,0 +1,13 @@
+package com.chamika.blog.services;
+
+import java.util.UUID;
+
+public interface PostViewService {
+    // counted in memory, persisted by the next flush
+    void recordView(UUID postId);
+    // persisted views plus this instance's views that are not flushed yet
+    long getViewCount(UUID postId);
+    // writes the pending views to the database in one batch
+    void flush();
+    void removeViews(UUID postId);
+}
@@ -0,0 +1,10 @@
+package com.chamika.blog.services;
+
+import com.chamika.blog.domain.PostSearchHit;
+
+import java.util.List;
+
+// the index follows the post events, see SearchServiceImpl.handle
+public interface SearchService {
+    List<PostSearchHit> search(String query, int limit);
+}
@@ -2,6 +2,7 @@ package com.chamika.blog.services;
 
 import com.chamika.blog.domain.entities.Tag;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -12,4 +13,5 @@ public interface TagService {
     Void deleteTag(UUID id);
     Tag getTagById(UUID id);
     List<Tag> getTagByIds(Set<UUID> ids);
+    void adjustPublishedPostCount(Collection<UUID> ids, long delta);
 }
@@ -4,10 +4,19 @@ import com.chamika.blog.domain.entities.User;
 import com.chamika.blog.repositories.UserRepository;
 import com.chamika.blog.security.BlogUserDetails;
 import com.chamika.blog.services.AuthenticationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,11 +27,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
+@Timed(value = "blog.service", histogram = true)
 @RequiredArgsConstructor  //will inject to final fields
 public class AuthenticationServiceImpl implements AuthenticationService {
 
@@ -31,12 +43,54 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final UserDetailsService userDetailsService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
 
     @Value("${jwt.secret}")
     private String secretKey;
 
+    @Value("${jwt.token-cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    @Value("${jwt.token-cache.ttl:5m}")
+    private Duration tokenCacheTtl;
+
     private final Long jwtExpiryMs = 86400000L;
 
+    // key and parser are immutable and thread safe, build them once instead of on every request
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // token -> principal for tokens whose signature was already checked
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    // blog.auth.token.validations{outcome}, registered once so the filter path does no meter lookups
+    private Counter cachedTokenValidations;
+    private Counter verifiedTokenValidations;
+    private Counter expiredTokenValidations;
+    private Counter invalidTokenValidations;
+
+    private record VerifiedToken(BlogUserDetails principal, long expiresAtMs) {
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfterWrite(tokenCacheTtl)
+                .build();
+        cachedTokenValidations = tokenValidations("cached");
+        verifiedTokenValidations = tokenValidations("verified");
+        expiredTokenValidations = tokenValidations("expired");
+        invalidTokenValidations = tokenValidations("invalid");
+    }
+
     @Override
     // validate the user is in the database
     public UserDetails authenticate(String email, String password) {
@@ -72,33 +126,59 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Override
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // enough to rebuild the principal in validateToken without loading the user
+        if(userDetails instanceof BlogUserDetails blogUserDetails){
+            claims.put(USER_ID_CLAIM, blogUserDetails.getId().toString());
+            claims.put(NAME_CLAIM, blogUserDetails.getName());
+        }
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername()) // put username in to the token
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiryMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     @Override
     public UserDetails validateToken(String token) {
-        String username = extractUserName(token);
-        return userDetailsService.loadUserByUsername(username);
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if(cached != null && cached.expiresAtMs() > System.currentTimeMillis()){
+            cachedTokenValidations.increment();
+            return cached.principal();
+        }
+
+        // throws if the signature is wrong or the token has expired
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException ex) {
+            expiredTokenValidations.increment();
+            throw ex;
+        } catch (JwtException | IllegalArgumentException ex) {
+            invalidTokenValidations.increment();
+            throw ex;
+        }
+        verifiedTokenValidations.increment();
+        BlogUserDetails principal = toPrincipal(claims);
+        verifiedTokens.put(token, new VerifiedToken(principal, claims.getExpiration().getTime()));
+        return principal;
     }
 
-    private String extractUserName(String token){
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    private Counter tokenValidations(String outcome){
+        return Counter.builder("blog.auth.token.validations")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
-    private Key getSigningKey(){
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private BlogUserDetails toPrincipal(Claims claims){
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        String name = claims.get(NAME_CLAIM, String.class);
+        if(userId == null || name == null){
+            // tokens issued before the id and name claims were added
+            return (BlogUserDetails) userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return BlogUserDetails.fromTokenClaims(UUID.fromString(userId), claims.getSubject(), name);
     }
 }
 
@@ -1,39 +1,54 @@
 package com.chamika.blog.services.impl;
 
 
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.DomainEvent;
 import com.chamika.blog.domain.entities.Category;
 import com.chamika.blog.repositories.CategoryRepository;
 import com.chamika.blog.services.CategoryService;
+import com.chamika.blog.services.DomainEventService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
+@Timed(value = "blog.service", histogram = true)
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final DomainEventService domainEventService;
 
     @Override
+    @Cacheable(CacheConfig.CATEGORIES)
     public List<Category> listCategories() {
-        return categoryRepository.findAllWithPostCount();
+        return categoryRepository.findAll();
     }
 
     @Override
     @Transactional
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public Category createCategory(Category category) {
         if(categoryRepository.existsByNameIgnoreCase(category.getName())){
             throw new IllegalArgumentException("Category already exist with name" + category.getName());
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        domainEventService.publish(new DomainEvent.CategoryCreated(savedCategory.getId(), savedCategory.getName()));
+        return savedCategory;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public void deleteCategory(UUID id) {
         Optional<Category> category = categoryRepository.findById(id);
         if(category.isPresent()){
@@ -41,6 +56,7 @@ public class CategoryServiceImpl implements CategoryService {
                 throw new IllegalStateException("Category has posts associated with it");
             }
             categoryRepository.deleteById(id);
+            domainEventService.publish(new DomainEvent.CategoryDeleted(id));
         }
 
     }
@@ -53,4 +69,16 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new EntityNotFoundException("Category Not Found With id" + id));
 
     }
+
+    @Override
+    public List<Category> getCategoriesByNames(Set<String> names) {
+        return names.isEmpty() ? List.of() : categoryRepository.findByNameIn(names);
+    }
+
+    @Override
+    public void adjustPublishedPostCount(UUID id, long delta) {
+        if(delta != 0){
+            categoryRepository.adjustPublishedPostCount(id, delta);
+        }
+    }
 }
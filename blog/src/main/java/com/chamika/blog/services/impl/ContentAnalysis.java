@@ -0,0 +1,136 @@
+package com.chamika.blog.services.impl;
+
+// Everything derived from a post's HTML content at write time, computed in one pass over the markup:
+// plain text (for the search index), word count, reading time and the stored excerpt.
+record ContentAnalysis(String plainText, String excerpt, int wordCount, int readingTime) {
+
+    static final int WORDS_PER_MINUTE = 200;
+    static final int EXCERPT_LENGTH = 200;
+
+    private static final ContentAnalysis EMPTY = new ContentAnalysis("", "", 0, 0);
+    // longest entity we decode is "&nbsp;", numeric ones like "&#x1F600;" are a little longer
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    static ContentAnalysis of(String html) {
+        if (html == null || html.isEmpty()) {
+            return EMPTY;
+        }
+
+        int length = html.length();
+        // the only buffer, plain text is never longer than the markup
+        StringBuilder text = new StringBuilder(length);
+        int wordCount = 0;
+        boolean inWord = false;
+        boolean pendingSpace = false;
+
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+
+            if (c == '<') {
+                // markup never counts as words, and a tag always ends the current word
+                int close = html.indexOf('>', i + 1);
+                i = close < 0 ? length : close + 1;
+                inWord = false;
+                pendingSpace = text.length() > 0;
+                continue;
+            }
+
+            int codePoint = c;
+            int next = i + 1;
+            if (c == '&') {
+                int semicolon = indexOfWithin(html, ';', i + 1, MAX_ENTITY_LENGTH);
+                int decoded = semicolon < 0 ? -1 : decodeEntity(html, i + 1, semicolon);
+                if (decoded >= 0) {
+                    codePoint = decoded;
+                    next = semicolon + 1;
+                }
+            }
+            i = next;
+
+            if (Character.isWhitespace(codePoint) || codePoint == '\u00A0') {
+                inWord = false;
+                pendingSpace = text.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                text.append(' ');
+                pendingSpace = false;
+            }
+            text.appendCodePoint(codePoint);
+            if (!inWord) {
+                wordCount++;
+                inWord = true;
+            }
+        }
+
+        String plainText = text.toString();
+        int readingTime = (wordCount + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE;
+        return new ContentAnalysis(plainText, excerptOf(plainText), wordCount, readingTime);
+    }
+
+    // cut at the last full word within EXCERPT_LENGTH characters
+    private static String excerptOf(String plainText) {
+        if (plainText.length() <= EXCERPT_LENGTH) {
+            return plainText;
+        }
+        int lastSpace = plainText.lastIndexOf(' ', EXCERPT_LENGTH);
+        return plainText.substring(0, lastSpace > 0 ? lastSpace : EXCERPT_LENGTH) + "...";
+    }
+
+    private static int indexOfWithin(String s, char c, int from, int maxDistance) {
+        int end = Math.min(s.length(), from + maxDistance);
+        for (int i = from; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // decodes the entity between '&' and ';' without creating a substring, -1 if unknown
+    private static int decodeEntity(String s, int start, int end) {
+        if (start < end && s.charAt(start) == '#') {
+            int radix = 10;
+            int digits = start + 1;
+            if (digits < end && (s.charAt(digits) == 'x' || s.charAt(digits) == 'X')) {
+                radix = 16;
+                digits++;
+            }
+            if (digits == end) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = digits; i < end; i++) {
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value * radix + digit;
+                if (value > Character.MAX_CODE_POINT) {
+                    return -1;
+                }
+            }
+            return value;
+        }
+        if (s.startsWith("amp", start) && end - start == 3) {
+            return '&';
+        }
+        if (s.startsWith("lt", start) && end - start == 2) {
+            return '<';
+        }
+        if (s.startsWith("gt", start) && end - start == 2) {
+            return '>';
+        }
+        if (s.startsWith("quot", start) && end - start == 4) {
+            return '"';
+        }
+        if (s.startsWith("apos", start) && end - start == 4) {
+            return '\'';
+        }
+        if (s.startsWith("nbsp", start) && end - start == 4) {
+            return '\u00A0';
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,402 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.DomainEvent;
+import com.chamika.blog.domain.entities.OutboxEvent;
+import com.chamika.blog.repositories.OutboxEventRepository;
+import com.chamika.blog.services.DomainEventHandler;
+import com.chamika.blog.services.DomainEventService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Transactional outbox. publish() only inserts a row next to the change, so a write pays one batched insert
+// and returns when its commit does. After the commit (and on an interval, for retries and whatever a previous
+// run left behind) the dispatcher claims the oldest due rows, splits them into lanes by aggregate id and
+// hands each lane to the handlers on a small bounded pool, so the events of one aggregate stay in order while
+// different aggregates go out in parallel. Delivered rows are deleted; failed ones are retried with backoff
+// and hold back the later events of their aggregate, until blog.events.retry.max-attempts marks them failed.
+// The events of an aggregate go out in aggregateVersion order, which follows the order their changes committed
+// in; createdAt comes from each instance's clock and only decides which aggregates go first.
+// With several instances every event is handled on one of them at a time: a batch is picked with
+// FOR UPDATE SKIP LOCKED and claimed for blog.events.dispatcher.claim-lease in a short transaction, and the
+// handlers run after that committed, holding no transaction or row locks. The claim of an instance that died
+// runs out and another one delivers the events again. Claimed events whose aggregate has an earlier pending one
+// outside the batch (claimed elsewhere, or past the batch limit) are released unhandled and wait for it.
+// Handlers that keep state per instance (the search index, the live feed) only see the events their instance
+// claimed, see SearchServiceImpl for how it catches up.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DomainEventServiceImpl implements DomainEventService {
+
+    private static final Comparator<OutboxEvent> AGGREGATE_ORDER = Comparator
+            .comparingLong(OutboxEvent::getAggregateVersion)
+            .thenComparing(OutboxEvent::getCreatedAt)
+            .thenComparing(OutboxEvent::getId);
+
+    private static final Map<String, Class<?>> EVENT_TYPES = Arrays.stream(DomainEvent.class.getPermittedSubclasses())
+            .flatMap(type -> type.isInterface() ? Arrays.stream(type.getPermittedSubclasses()) : Stream.of(type))
+            .collect(Collectors.toMap(Class::getSimpleName, Function.identity()));
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<DomainEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${blog.events.dispatcher.threads:4}")
+    private int threads;
+
+    @Value("${blog.events.dispatcher.batch-size:200}")
+    private int batchSize;
+
+    // far longer than a batch takes to handle, it only matters when an instance dies with a claim
+    @Value("${blog.events.dispatcher.claim-lease:1m}")
+    private Duration claimLease;
+
+    @Value("${blog.events.retry.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${blog.events.retry.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${blog.events.retry.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    // one dispatch at a time, whether from a commit, the interval or a caller waiting for delivery
+    private final ReentrantLock dispatching = new ReentrantLock();
+    // createdAt orders the events one transaction publishes for the same aggregate version, so it never repeats
+    // or goes back within this instance
+    private final AtomicReference<LocalDateTime> lastCreatedAt = new AtomicReference<>(LocalDateTime.MIN);
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    private ThreadPoolExecutor dispatcher;
+    private ThreadPoolExecutor lanes;
+
+    private record LaneResult(List<OutboxEvent> delivered, List<OutboxEvent> failed) {
+    }
+
+    @PostConstruct
+    void init() {
+        // one dispatch running and at most one queued behind it: commits while it runs are all picked up by that one
+        dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), threadsNamed("event-dispatcher"), new ThreadPoolExecutor.DiscardPolicy());
+        // a batch never has more lanes than threads, and batches do not overlap
+        lanes = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads), threadsNamed("event-handler"));
+
+        Gauge.builder("blog.events.pending.age", oldestPending, oldest -> oldest.get() == null
+                        ? 0 : Duration.between(oldest.get(), LocalDateTime.now()).toMillis() / 1000.0)
+                .description("Seconds since the oldest event still in the outbox was published, as of the last dispatch")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+        publishAll(List.of(event));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxEventRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+        // a rollback takes the rows with it, so there is nothing to dispatch unless the commit succeeds
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wake();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${blog.events.dispatcher.poll-interval:1s}")
+    public void poll() {
+        wake();
+    }
+
+    @Override
+    public int dispatch() {
+        dispatching.lock();
+        try {
+            int delivered = 0;
+            while (true) {
+                List<OutboxEvent> claimed = claim();
+                int dispatched = dispatchBatch(claimed);
+                delivered += dispatched;
+                // events waiting on a retry are not claimed, so a full batch means there is more to do now.
+                // One where nothing went out is waiting on another instance, the next poll tries again
+                if (claimed.size() < batchSize || dispatched == 0) {
+                    break;
+                }
+            }
+            oldestPending.set(outboxEventRepository.findFirstByFailedAtIsNullOrderByCreatedAtAscIdAsc()
+                    .map(OutboxEvent::getCreatedAt)
+                    .orElse(null));
+            return delivered;
+        } finally {
+            dispatching.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // whatever is not delivered yet stays in the outbox for the next start
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(10, TimeUnit.SECONDS);
+        lanes.shutdown();
+    }
+
+    private void wake() {
+        dispatcher.execute(() -> {
+            try {
+                dispatch();
+            } catch (RuntimeException ex) {
+                log.error("Failed to dispatch domain events", ex);
+            }
+        });
+    }
+
+    // committed before the handlers run, the claim keeps other instances away from the batch until it runs out
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> due = outboxEventRepository.findDueForClaim(now, batchSize);
+            if (!due.isEmpty()) {
+                outboxEventRepository.claim(due.stream().map(OutboxEvent::getId).toList(), now.plus(claimLease));
+            }
+            return due;
+        });
+    }
+
+    private int dispatchBatch(List<OutboxEvent> claimed) {
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, OutboxEvent> heldFrom = heldFrom(claimed);
+        Map<Integer, List<OutboxEvent>> eventsByLane = new HashMap<>();
+        List<OutboxEvent> held = new ArrayList<>();
+        for (OutboxEvent event : claimed.stream().sorted(AGGREGATE_ORDER).toList()) {
+            UUID aggregateId = event.getAggregateId();
+            OutboxEvent earlier = heldFrom.get(aggregateId);
+            if (earlier != null && AGGREGATE_ORDER.compare(event, earlier) > 0) {
+                held.add(event);
+                continue;
+            }
+            eventsByLane.computeIfAbsent(Math.floorMod(aggregateId.hashCode(), threads), lane -> new ArrayList<>())
+                    .add(event);
+        }
+        if (eventsByLane.isEmpty()) {
+            record(List.of(), List.of(), held);
+            return 0;
+        }
+
+        List<Future<LaneResult>> results = eventsByLane.values().stream()
+                .map(events -> lanes.submit(() -> deliver(events)))
+                .toList();
+        List<OutboxEvent> delivered = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        for (Future<LaneResult> result : results) {
+            try {
+                LaneResult laneResult = result.get();
+                delivered.addAll(laneResult.delivered());
+                failed.addAll(laneResult.failed());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for event handlers", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Event lane failed", ex.getCause());
+            }
+        }
+
+        record(delivered, failed, held);
+        return delivered.size();
+    }
+
+    // per aggregate, the earliest of its pending events outside the batch (claimed by another instance, waiting
+    // for a retry, or past the batch limit): claimed events after it wait, so the aggregate's events stay in order
+    private Map<UUID, OutboxEvent> heldFrom(List<OutboxEvent> claimed) {
+        Set<UUID> aggregateIds = claimed.stream().map(OutboxEvent::getAggregateId).collect(Collectors.toSet());
+        List<UUID> claimedIds = claimed.stream().map(OutboxEvent::getId).toList();
+        return outboxEventRepository.findUnclaimedPending(aggregateIds, claimedIds).stream()
+                .collect(Collectors.toMap(OutboxEvent::getAggregateId, Function.identity(),
+                        BinaryOperator.minBy(AGGREGATE_ORDER)));
+    }
+
+    private LaneResult deliver(List<OutboxEvent> events) {
+        try {
+            handle(events);
+            return new LaneResult(events, List.of());
+        } catch (RuntimeException ex) {
+            Map<UUID, List<OutboxEvent>> eventsByAggregate = events.stream()
+                    .collect(Collectors.groupingBy(OutboxEvent::getAggregateId, LinkedHashMap::new, Collectors.toList()));
+            if (eventsByAggregate.size() == 1) {
+                log.warn("Handling {} events of {} failed", events.size(), events.get(0).getAggregateId(), ex);
+                return new LaneResult(List.of(), events);
+            }
+            // one aggregate the handlers choke on should not hold up the rest of its lane
+            List<OutboxEvent> delivered = new ArrayList<>();
+            List<OutboxEvent> failed = new ArrayList<>();
+            eventsByAggregate.forEach((aggregateId, aggregateEvents) -> {
+                try {
+                    handle(aggregateEvents);
+                    delivered.addAll(aggregateEvents);
+                } catch (RuntimeException aggregateEx) {
+                    log.warn("Handling {} events of {} failed", aggregateEvents.size(), aggregateId, aggregateEx);
+                    failed.addAll(aggregateEvents);
+                }
+            });
+            return new LaneResult(delivered, failed);
+        }
+    }
+
+    private void handle(List<OutboxEvent> events) {
+        List<DomainEvent> domainEvents = events.stream().map(this::toDomainEvent).toList();
+        for (DomainEventHandler handler : handlers) {
+            handler.handle(domainEvents);
+        }
+    }
+
+    private void record(List<OutboxEvent> delivered, List<OutboxEvent> failed, List<OutboxEvent> held) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, List<UUID>> retriesByAttempt = new HashMap<>();
+        List<UUID> exhausted = new ArrayList<>();
+        for (OutboxEvent event : failed) {
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on {} event {} of {} after {} attempts",
+                        event.getType(), event.getId(), event.getAggregateId(), attempts);
+                exhausted.add(event.getId());
+            } else {
+                retriesByAttempt.computeIfAbsent(attempts, attempt -> new ArrayList<>()).add(event.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered.stream().map(OutboxEvent::getId).toList());
+            }
+            retriesByAttempt.forEach((attempts, ids) ->
+                    outboxEventRepository.scheduleRetry(ids, now.plus(backoff(attempts))));
+            if (!exhausted.isEmpty()) {
+                outboxEventRepository.markFailed(exhausted, now);
+            }
+            if (!held.isEmpty()) {
+                outboxEventRepository.release(held.stream().map(OutboxEvent::getId).toList());
+            }
+        });
+
+        for (OutboxEvent event : delivered) {
+            Timer.builder("blog.events.lag")
+                    .description("From publishing an event to all handlers having taken it")
+                    .tag("type", event.getType())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.between(event.getCreatedAt(), now));
+            dispatched(event, "delivered");
+        }
+        for (OutboxEvent event : failed) {
+            dispatched(event, event.getAttempts() + 1 >= maxAttempts ? "failed" : "retried");
+        }
+    }
+
+    // doubles with every attempt, up to blog.events.retry.max-backoff
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void dispatched(OutboxEvent event, String outcome) {
+        Counter.builder("blog.events.dispatched")
+                .tag("type", event.getType())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private OutboxEvent toOutboxEvent(DomainEvent event) {
+        try {
+            return OutboxEvent.builder()
+                    .aggregateId(event.aggregateId())
+                    .aggregateVersion(event.aggregateVersion())
+                    .type(event.getClass().getSimpleName())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .createdAt(nextCreatedAt())
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize " + event, ex);
+        }
+    }
+
+    private DomainEvent toDomainEvent(OutboxEvent event) {
+        Class<?> type = EVENT_TYPES.get(event.getType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown event type " + event.getType());
+        }
+        try {
+            return (DomainEvent) objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot read " + event.getType() + " event " + event.getId(), ex);
+        }
+    }
+
+    private LocalDateTime nextCreatedAt() {
+        // timestamp(6) keeps microseconds
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return lastCreatedAt.updateAndGet(last -> now.isAfter(last) ? now : last.plus(1, ChronoUnit.MICROS));
+    }
+
+    private static ThreadFactory threadsNamed(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.PostState;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.TextEdit;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostBody;
+import com.chamika.blog.repositories.PostBodyRepository;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.services.DraftAutosaveService;
+import com.chamika.blog.services.PostRevisionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Autosaves only replace the draft's entry in a map, however often the editor sends them. A scheduled
+// flush writes whatever is pending in one transaction: one select of the posts and their bodies, then
+// batched updates and revision inserts, so many authors typing at once cost a few statements per interval
+// rather than a transaction per keystroke pause. Reads and explicit saves of a post flush its entry first, so they
+// never see older content than the author last sent. An entry remembers the post version it was taken against and
+// is dropped if the post has moved on since, so a flush already under way cannot overwrite an explicit save that
+// committed before it. Like the view counts, what is pending when the
+// process dies is lost (at most one blog.drafts.autosave.flush-interval), a clean shutdown flushes it.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DraftAutosaveServiceImpl implements DraftAutosaveService {
+
+    private final PostRepository postRepository;
+    private final PostBodyRepository postBodyRepository;
+    private final PostRevisionService postRevisionService;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${blog.drafts.autosave.max-pending:10000}")
+    private int maxPending;
+
+    private final ConcurrentHashMap<UUID, PendingDraft> pendingDrafts = new ConcurrentHashMap<>();
+
+    private Counter coalescedAutosaves;
+    private Counter writtenAutosaves;
+
+    private record PendingDraft(String title, String content, long baseVersion) {
+
+        PendingDraft then(String title, String content) {
+            return new PendingDraft(title == null ? this.title : title, content == null ? this.content : content,
+                    baseVersion);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("blog.drafts.autosave.pending", pendingDrafts, Map::size)
+                .description("Drafts with an autosave not written to the database yet")
+                .register(meterRegistry);
+        coalescedAutosaves = Counter.builder("blog.drafts.autosaves")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        writtenAutosaves = Counter.builder("blog.drafts.autosaves")
+                .tag("outcome", "written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void autosave(UUID postId, String title, String content) {
+        // a blank title is the author halfway through retyping it, keep the stored one
+        String newTitle = title == null || title.isBlank() ? null : title;
+        PendingDraft previous = pendingDrafts.get(postId);
+        PostState state = null;
+        if (previous == null) {
+            // checked once per flush interval and post, later autosaves only touch the map
+            state = postRepository.findStateById(postId)
+                    .orElseThrow(() -> new EntityNotFoundException("Post does not exist with id" + postId));
+            if (!PostStatus.DRAFT.equals(state.status())) {
+                throw new IllegalStateException("Only drafts are autosaved, save published posts explicitly");
+            }
+        }
+
+        // a later autosave keeps the version of the entry it is merged into
+        long baseVersion = state == null ? previous.baseVersion() : state.version();
+        pendingDrafts.merge(postId, new PendingDraft(newTitle, content, baseVersion),
+                (pending, latest) -> pending.then(latest.title(), latest.content()));
+        if (previous != null) {
+            coalescedAutosaves.increment();
+        } else if (pendingDrafts.size() > maxPending) {
+            // too many open editors to hold them all until the next flush, write this one through
+            flush(postId);
+        }
+    }
+
+    @Override
+    public void flush(UUID postId) {
+        PendingDraft pending = pendingDrafts.remove(postId);
+        if (pending != null) {
+            write(Map.of(postId, pending));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${blog.drafts.autosave.flush-interval:5s}")
+    public void flush() {
+        Map<UUID, PendingDraft> drafts = new HashMap<>();
+        // remove one by one, an autosave racing the flush starts a new entry for the next one
+        for (UUID postId : pendingDrafts.keySet()) {
+            PendingDraft pending = pendingDrafts.remove(postId);
+            if (pending != null) {
+                drafts.put(postId, pending);
+            }
+        }
+        if (drafts.isEmpty()) {
+            return;
+        }
+
+        try {
+            write(drafts);
+        } catch (DataAccessException ex) {
+            // nothing was written, keep them for the next flush unless the author has sent a newer one
+            log.warn("Could not flush autosaves of {} drafts, retrying on the next flush", drafts.size(), ex);
+            drafts.forEach(pendingDrafts::putIfAbsent);
+        }
+    }
+
+    @Override
+    public void discard(UUID postId) {
+        pendingDrafts.remove(postId);
+    }
+
+    private void write(Map<UUID, PendingDraft> drafts) {
+        // joins the caller's transaction when an explicit save flushes its post first
+        List<Post> written = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (PostBody postBody : postBodyRepository.findAllWithPostByPostIdIn(drafts.keySet())) {
+                Post post = postBody.getPost();
+                PendingDraft pending = drafts.get(post.getId());
+                // saved explicitly or published since the autosave was taken, that save already had the author's
+                // latest. One committing between this read and the update fails the version check instead
+                if (post.getVersion() != pending.baseVersion() || !PostStatus.DRAFT.equals(post.getStatus())) {
+                    continue;
+                }
+                if (pending.title() != null) {
+                    post.setTitle(pending.title());
+                }
+                List<TextEdit> edits = pending.content() == null
+                        ? List.of()
+                        : TextEdit.between(postBody.getContent(), pending.content());
+                if (!edits.isEmpty()) {
+                    // drafts are not in the search index, the listings need the excerpt and reading time
+                    ContentAnalysis contentAnalysis = ContentAnalysis.of(pending.content());
+                    post.setContent(pending.content());
+                    postBody.setContent(pending.content());
+                    post.setReadingTime(contentAnalysis.readingTime());
+                    post.setExcerpt(contentAnalysis.excerpt());
+                    post.setRevision(post.getRevision() + 1);
+                    postRevisionService.recordRevision(post, edits);
+                }
+                written.add(post);
+            }
+        });
+        writtenAutosaves.increment(written.size());
+        // autosaves buffered while this write was under way were taken against the version it replaced.
+        // In a caller's transaction the version moves on at its commit and they keep the older one
+        for (Post post : written) {
+            long baseVersion = drafts.get(post.getId()).baseVersion();
+            pendingDrafts.computeIfPresent(post.getId(), (postId, pending) -> pending.baseVersion() == baseVersion
+                    ? new PendingDraft(pending.title(), pending.content(), post.getVersion())
+                    : pending);
+        }
+
+        Cache posts = cacheManager.getCache(CacheConfig.POSTS);
+        if (posts != null) {
+            drafts.keySet().forEach(posts::evict);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,95 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostTagSummary;
+import com.chamika.blog.domain.dtos.ExportPostDto;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostBody;
+import com.chamika.blog.mappers.PostMapper;
+import com.chamika.blog.repositories.PostBodyRepository;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.services.PostExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Memory stays at one batch of posts however large the corpus: rows come off a cursor, each batch
+// gets its tags and its bodies in one query each, is written, and is then dropped from the persistence context.
+@Service
+@RequiredArgsConstructor
+public class PostExportServiceImpl implements PostExportService {
+
+    private final PostRepository postRepository;
+    private final PostBodyRepository postBodyRepository;
+    private final PostMapper postMapper;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${blog.export.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    // one read-only transaction keeps the cursor open and gives the export a consistent snapshot
+    @Transactional(readOnly = true)
+    public long exportPublishedPosts(UUID categoryId, UUID tagId, LocalDateTime from, LocalDateTime to,
+                                     OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ExportPostDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Post> posts = postRepository.streamForExport(
+                     PostStatus.PUBLISHED, categoryId, tagId, from, to, batchSize)) {
+            List<Post> batch = new ArrayList<>(batchSize);
+            Iterator<Post> iterator = posts.iterator();
+            while(iterator.hasNext()){
+                batch.add(iterator.next());
+                if(batch.size() == batchSize || !iterator.hasNext()){
+                    exported += writeBatch(batch, writer, generator);
+                }
+            }
+        }
+        return exported;
+    }
+
+    private int writeBatch(List<Post> batch, ObjectWriter writer, JsonGenerator generator) throws IOException {
+        List<UUID> postIds = batch.stream().map(Post::getId).toList();
+        Map<UUID, List<String>> tagNamesByPostId = postRepository.findTagSummariesByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagSummary::postId,
+                        Collectors.mapping(PostTagSummary::tagName, Collectors.toList())));
+        Map<UUID, String> contentByPostId = postBodyRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(PostBody::getPostId, PostBody::getContent));
+
+        for(Post post : batch){
+            post.setContent(contentByPostId.get(post.getId()));
+            writer.writeValue(generator, postMapper.toExportDto(post, tagNamesByPostId.getOrDefault(post.getId(), List.of())));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+
+        int written = batch.size();
+        batch.clear();
+        entityManager.clear();
+        return written;
+    }
+}
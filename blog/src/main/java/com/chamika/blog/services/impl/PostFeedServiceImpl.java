@@ -0,0 +1,301 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostTagSummary;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.mappers.PostMapper;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.services.PostFeedService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Live feed of newly published posts over Server-Sent Events. Every instance polls for the posts published
+// past its own cursor on publish_seq, so each one streams every post whichever instance published it, and
+// the event ids are the publish_seq values, the same on all of them.
+// An idle subscriber is an async request (no thread) and an empty queue. Publishing only offers the event,
+// serialized once, to each matching subscriber's queue; a few writer threads drain the queues that have
+// something in them, one subscriber at a time, and give up on a write that takes longer than write-timeout.
+// A subscriber whose queue is full or whose write timed out is too slow and is dropped, its client
+// reconnects with Last-Event-ID and is sent what it missed from the recent events kept here.
+@Service
+@RequiredArgsConstructor
+public class PostFeedServiceImpl implements PostFeedService {
+
+    private static final String POST_PUBLISHED = "post-published";
+    // the client missed more than can be replayed and should reload the list instead
+    private static final String RESYNC = "resync";
+    private static final Object HEARTBEAT = new Object();
+    private static final int POLL_BATCH_SIZE = 100;
+
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${blog.feed.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${blog.feed.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${blog.feed.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${blog.feed.reconnect-delay:3s}")
+    private Duration reconnectDelay;
+
+    @Value("${blog.feed.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${blog.feed.write-timeout:5s}")
+    private Duration writeTimeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // the last replay-size events by id, for Last-Event-ID
+    private final ConcurrentSkipListMap<Long, FeedEvent> recentEvents = new ConcurrentSkipListMap<>();
+    // publishing and subscribing take turns, so a new subscriber gets every event exactly once
+    private final Object feedLock = new Object();
+
+    // the last publish_seq polled. Events before the one this instance started at were never kept here
+    private long cursor;
+    private long replayableAfter;
+
+    private ThreadPoolExecutor writers;
+    // the writes themselves, so a writer waits at most write-timeout on a slow client
+    private ExecutorService sends;
+    private Counter droppedSubscribers;
+
+    private record FeedEvent(long id, UUID postId, UUID categoryId, Set<UUID> tagIds, String json) {
+    }
+
+    @PostConstruct
+    void init() {
+        cursor = postRepository.findLastPublishSeq();
+        replayableAfter = cursor;
+        // at most one task per subscriber is queued, see Subscriber.offer
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "post-feed-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // a write stuck on a client that stopped reading keeps its thread until the connection fails
+        sends = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "post-feed-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("blog.feed.subscribers", subscribers, Set::size)
+                .register(meterRegistry);
+        droppedSubscribers = Counter.builder("blog.feed.subscribers.dropped")
+                .description("Subscribers disconnected because their buffer was full or a write timed out")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID categoryId, UUID tagId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        // an id from an instance that has polled further than this one is not sent again
+        Subscriber subscriber = new Subscriber(emitter, categoryId, tagId, lastEventId == null ? 0 : lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        // sent right away, so the response starts before the first post and the client knows the retry delay
+        subscriber.offer(SseEmitter.event().reconnectTime(reconnectDelay.toMillis()).comment("connected"));
+        synchronized (feedLock) {
+            if (lastEventId != null) {
+                List<FeedEvent> missed = recentEvents.tailMap(lastEventId, false).values().stream()
+                        .filter(subscriber::matches)
+                        .toList();
+                if (lastEventId < replayableAfter || missed.size() >= bufferSize) {
+                    subscriber.offer(SseEmitter.event().id(Long.toString(cursor)).name(RESYNC).data(""));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    // synchronized, so a poll run by hand does not announce the same posts as the scheduled one
+    @Scheduled(fixedDelayString = "${blog.feed.poll-interval:1s}")
+    public synchronized void poll() {
+        List<Post> posts;
+        do {
+            posts = postRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(cursor, Limit.of(POLL_BATCH_SIZE));
+            if (posts.isEmpty()) {
+                return;
+            }
+
+            // unpublished or deleted again by now, nothing to announce
+            List<Post> published = posts.stream()
+                    .filter(post -> post.getStatus() == PostStatus.PUBLISHED)
+                    .toList();
+            Map<UUID, List<UUID>> tagIdsByPostId = published.isEmpty()
+                    ? Map.of()
+                    : postRepository.findTagSummariesByPostIds(published.stream().map(Post::getId).toList()).stream()
+                            .collect(Collectors.groupingBy(PostTagSummary::postId,
+                                    Collectors.mapping(PostTagSummary::tagId, Collectors.toList())));
+
+            synchronized (feedLock) {
+                for (Post post : published) {
+                    List<UUID> tagIds = tagIdsByPostId.getOrDefault(post.getId(), List.of());
+                    publish(new FeedEvent(post.getPublishSeq(), post.getId(), post.getCategory().getId(),
+                            Set.copyOf(tagIds), toJson(post, tagIds)));
+                }
+                cursor = posts.get(posts.size() - 1).getPublishSeq();
+            }
+        } while (posts.size() == POLL_BATCH_SIZE);
+    }
+
+    // comments keep proxies from closing idle connections, and find the clients that went away
+    @Scheduled(fixedDelayString = "${blog.feed.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @PreDestroy
+    void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        writers.shutdown();
+        sends.shutdownNow();
+    }
+
+    // called holding feedLock
+    private void publish(FeedEvent event) {
+        recentEvents.put(event.id(), event);
+        while (recentEvents.size() > replaySize) {
+            replayableAfter = recentEvents.pollFirstEntry().getKey();
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private String toJson(Post post, List<UUID> tagIds) {
+        try {
+            return objectMapper.writeValueAsString(postMapper.toFeedEventDto(post, tagIds));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize feed event of " + post.getId(), ex);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final UUID categoryId;
+        private final UUID tagId;
+        private final long after;
+        private final ArrayBlockingQueue<Object> pending = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, UUID categoryId, UUID tagId, long after) {
+            this.emitter = emitter;
+            this.categoryId = categoryId;
+            this.tagId = tagId;
+            this.after = after;
+        }
+
+        private boolean matches(FeedEvent event) {
+            return event.id() > after
+                    && (categoryId == null || categoryId.equals(event.categoryId()))
+                    && (tagId == null || event.tagIds().contains(tagId));
+        }
+
+        // never blocks: the item is queued, or the subscriber is dropped
+        private void offer(Object item) {
+            if (!pending.offer(item)) {
+                if (subscribers.remove(this)) {
+                    droppedSubscribers.increment();
+                    emitter.complete();
+                }
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object item;
+                while ((item = pending.poll()) != null) {
+                    if (!send(item)) {
+                        subscribers.remove(this);
+                        pending.clear();
+                        return;
+                    }
+                }
+                draining.set(false);
+                // an offer between the last poll and the reset above would otherwise wait for the next one
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(Object item) {
+            SseEmitter.SseEventBuilder event;
+            if (item == HEARTBEAT) {
+                event = SseEmitter.event().comment("heartbeat");
+            } else if (item instanceof FeedEvent feedEvent) {
+                event = SseEmitter.event().id(Long.toString(feedEvent.id())).name(POST_PUBLISHED).data(feedEvent.json());
+            } else {
+                event = (SseEmitter.SseEventBuilder) item;
+            }
+
+            Future<?> write = sends.submit(() -> {
+                emitter.send(event);
+                return null;
+            });
+            try {
+                write.get(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException ex) {
+                write.cancel(true);
+                droppedSubscribers.increment();
+                // completing waits for the stuck write to let go of the emitter, so not on this thread
+                sends.execute(() -> emitter.completeWithError(ex));
+                return false;
+            } catch (ExecutionException ex) {
+                // gone, or completed after a timeout
+                emitter.completeWithError(ex.getCause());
+                return false;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.ImportPostRequest;
+import com.chamika.blog.domain.ImportPostResult;
+import com.chamika.blog.domain.dtos.ImportPostRequestDto;
+import com.chamika.blog.domain.dtos.ImportPostResultDto;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.mappers.PostMapper;
+import com.chamika.blog.services.PostImportService;
+import com.chamika.blog.services.PostService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Streams the request body line by line, so memory stays at one chunk however large the import is.
+// Each chunk is its own transaction: a failed chunk is reported and the import carries on.
+@Service
+@Slf4j
+public class PostImportServiceImpl implements PostImportService {
+
+    private final PostService postService;
+    private final PostMapper postMapper;
+    private final Validator validator;
+    private final ObjectReader recordReader;
+    private final ObjectWriter resultWriter;
+
+    @Value("${blog.import.chunk-size:500}")
+    private int chunkSize;
+
+    public PostImportServiceImpl(PostService postService, PostMapper postMapper, Validator validator,
+                                 ObjectMapper objectMapper) {
+        this.postService = postService;
+        this.postMapper = postMapper;
+        this.validator = validator;
+        this.recordReader = objectMapper.readerFor(ImportPostRequestDto.class);
+        this.resultWriter = objectMapper.writerFor(ImportPostResultDto.class);
+    }
+
+    @Override
+    public void importPosts(User author, InputStream ndjson, OutputStream results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        List<ImportPostRequest> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        long lineNumber = 0;
+        String line;
+        while((line = reader.readLine()) != null){
+            lineNumber++;
+            if(line.isBlank()){
+                continue;
+            }
+
+            ImportPostRequestDto importPostRequestDto;
+            try {
+                importPostRequestDto = recordReader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                writeResult(results, lineNumber, ImportPostResult.failed("Invalid JSON: " + ex.getOriginalMessage()));
+                continue;
+            }
+            String violations = validator.validate(importPostRequestDto).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            if(!violations.isEmpty()){
+                writeResult(results, lineNumber, ImportPostResult.failed(violations));
+                continue;
+            }
+
+            chunk.add(postMapper.toImportPostRequest(importPostRequestDto));
+            chunkLines.add(lineNumber);
+            if(chunk.size() >= chunkSize){
+                importChunk(author, chunk, chunkLines, results);
+            }
+        }
+        if(!chunk.isEmpty()){
+            importChunk(author, chunk, chunkLines, results);
+        }
+        results.flush();
+    }
+
+    private void importChunk(User author, List<ImportPostRequest> chunk, List<Long> chunkLines,
+                             OutputStream results) throws IOException {
+        List<ImportPostResult> chunkResults;
+        try {
+            chunkResults = postService.importPosts(author, chunk);
+        } catch (RuntimeException ex) {
+            // the whole chunk was rolled back, nothing of it is in the database
+            log.warn("Import chunk of {} posts starting at line {} failed", chunk.size(), chunkLines.get(0), ex);
+            ImportPostResult failed = ImportPostResult.failed("Chunk rolled back: " + ex.getMessage());
+            chunkResults = chunk.stream().map(importPostRequest -> failed).toList();
+        }
+        for(int i = 0; i < chunkResults.size(); i++){
+            writeResult(results, chunkLines.get(i), chunkResults.get(i));
+        }
+        // the client sees progress after every chunk
+        results.flush();
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void writeResult(OutputStream results, long lineNumber, ImportPostResult importPostResult) throws IOException {
+        ImportPostResultDto importPostResultDto =
+                new ImportPostResultDto(lineNumber, importPostResult.id(), importPostResult.error());
+        results.write(resultWriter.writeValueAsBytes(importPostResultDto));
+        results.write('\n');
+    }
+}
@@ -0,0 +1,167 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.TextEdit;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostRevision;
+import com.chamika.blog.repositories.PostRevisionRepository;
+import com.chamika.blog.services.PostRevisionService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+// Revision 1 and every snapshot-interval revisions after it are stored as the whole content, the ones in
+// between as the edits from the revision before. Reading a revision replays at most snapshot-interval - 1
+// deltas on top of a snapshot. Both kinds are raw deflate: a snapshot is the UTF-8 content, a delta is
+// the edit count, then per edit its offset, delete count, and the length and UTF-8 bytes of the insert.
+@Service
+@RequiredArgsConstructor
+public class PostRevisionServiceImpl implements PostRevisionService {
+
+    private final PostRevisionRepository postRevisionRepository;
+
+    @Value("${blog.posts.revisions.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Override
+    public void recordInitialRevisions(List<Post> posts) {
+        postRevisionRepository.saveAll(posts.stream()
+                .map(post -> snapshot(post.getId(), post.getRevision(), post.getContent()))
+                .toList());
+    }
+
+    @Override
+    public void recordRevision(Post post, List<TextEdit> edits) {
+        int revision = post.getRevision();
+        if (revision == 1 || (revision - 1) % snapshotInterval == 0) {
+            postRevisionRepository.save(snapshot(post.getId(), revision, post.getContent()));
+            return;
+        }
+        byte[] delta = encode(edits);
+        // a rewrite of most of the post gains nothing from being replayed
+        if (delta.length >= post.getContent().length()) {
+            postRevisionRepository.save(snapshot(post.getId(), revision, post.getContent()));
+            return;
+        }
+        postRevisionRepository.save(PostRevision.builder()
+                .postId(post.getId())
+                .revision(revision)
+                .snapshot(false)
+                .data(deflate(delta))
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getContentAtRevision(UUID postId, int revision) {
+        List<PostRevision> chain = postRevisionRepository.findChainToRevision(postId, revision);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevision() != revision) {
+            throw new EntityNotFoundException("Post " + postId + " has no revision " + revision);
+        }
+        String content = null;
+        for (PostRevision postRevision : chain) {
+            byte[] data = inflate(postRevision.getData());
+            content = postRevision.isSnapshot()
+                    ? new String(data, StandardCharsets.UTF_8)
+                    : TextEdit.apply(content, decode(data));
+        }
+        return content;
+    }
+
+    private static PostRevision snapshot(UUID postId, int revision, String content) {
+        return PostRevision.builder()
+                .postId(postId)
+                .revision(revision)
+                .snapshot(true)
+                .data(deflate(content.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static byte[] encode(List<TextEdit> edits) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(edits.size());
+            for (TextEdit edit : edits) {
+                byte[] insert = edit.insert() == null ? new byte[0] : edit.insert().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(edit.offset());
+                out.writeInt(edit.deleteCount());
+                out.writeInt(insert.length);
+                out.write(insert);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TextEdit> decode(byte[] delta) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta))) {
+            int count = in.readInt();
+            List<TextEdit> edits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int offset = in.readInt();
+                int deleteCount = in.readInt();
+                byte[] insert = new byte[in.readInt()];
+                in.readFully(insert);
+                edits.add(new TextEdit(offset, deleteCount, new String(insert, StandardCharsets.UTF_8)));
+            }
+            return edits;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // raw deflate, the zlib header and checksum would be a good part of a small delta
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new UncheckedIOException(new ZipException("Post revision data is truncated"));
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new UncheckedIOException(new ZipException("Post revision data is corrupt: " + ex.getMessage()));
+        } finally {
+            inflater.end();
+        }
+    }
+}
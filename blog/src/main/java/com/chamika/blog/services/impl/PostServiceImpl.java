@@ -1,93 +1,131 @@
 package com.chamika.blog.services.impl;
 
+import com.chamika.blog.config.CacheConfig;
 import com.chamika.blog.domain.CreatePostRequest;
+import com.chamika.blog.domain.DomainEvent;
+import com.chamika.blog.domain.ImportPostRequest;
+import com.chamika.blog.domain.ImportPostResult;
+import com.chamika.blog.domain.PatchPostRequest;
+import com.chamika.blog.domain.PostCursor;
+import com.chamika.blog.domain.PostPage;
 import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.PostTagSummary;
+import com.chamika.blog.domain.TextEdit;
 import com.chamika.blog.domain.UpdatePostRequest;
 import com.chamika.blog.domain.entities.Category;
 import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostBody;
 import com.chamika.blog.domain.entities.Tag;
 import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.PostBodyRepository;
 import com.chamika.blog.repositories.PostRepository;
 import com.chamika.blog.services.CategoryService;
+import com.chamika.blog.services.DomainEventService;
+import com.chamika.blog.services.DraftAutosaveService;
+import com.chamika.blog.services.PostRevisionService;
 import com.chamika.blog.services.PostService;
+import com.chamika.blog.services.PostViewService;
 import com.chamika.blog.services.TagService;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+// every public method is timed as blog.service{class,method,exception}
+@Timed(value = "blog.service", histogram = true)
 @RequiredArgsConstructor
 public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
+    private final PostBodyRepository postBodyRepository;
     private final CategoryService categoryService;
     private final TagService tagService;
-    private static final int WORDS_PER_MINUTE = 200;
+    private final PostViewService postViewService;
+    private final PostRevisionService postRevisionService;
+    private final DraftAutosaveService draftAutosaveService;
+    private final DomainEventService domainEventService;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // same bounds as the content of CreatePostRequestDto and UpdatePostRequestDto
+    private static final int MIN_CONTENT_LENGTH = 10;
+    private static final int MAX_CONTENT_LENGTH = 5000;
 
     @Override
+    @Cacheable(value = CacheConfig.POSTS, key = "#id")
     public Post getPost(UUID id) {
-        return postRepository.findById(id)
+        return withContent(postBodyRepository.findWithPostByPostId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Post Does not exist with Id"+ id)));
+    }
+
+    @Override
+    public LocalDateTime getPostVersion(UUID id) {
+        // an autosave still in memory would otherwise leave the author reading what they had before it
+        draftAutosaveService.flush(id);
+        return postRepository.findUpdatedAtById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Post Does not exist with Id"+ id));
     }
 
     @Override
     // here few database transactions and all are readings  from database
     @Transactional(readOnly = true)
-    public List<Post> getAllPosts(UUID categoryId, UUID tagId) {
-       if(categoryId != null && tagId != null){
-           Category category = categoryService.getCategoryByID(categoryId);
-           Tag tag = tagService.getTagById(tagId);
-           return postRepository.findAllByStatusAndCategoryAndTagsContaining(
-                   PostStatus.PUBLISHED,
-                   category,
-                   tag
-           );
-
-       }
+    public PostPage getAllPosts(UUID categoryId, UUID tagId, String cursor, int limit) {
+       // unknown ids should still be reported as 404 rather than an empty page
        if(categoryId != null){
-           Category category = categoryService.getCategoryByID(categoryId);
-           return postRepository.findAllByStatusAndCategory(
-                   PostStatus.PUBLISHED,
-                   category
-           );
+           categoryService.getCategoryByID(categoryId);
        }
        if(tagId != null){
-           Tag tag = tagService.getTagById(tagId);
-           return postRepository.findAllByStatusAndTagsContaining(
-                   PostStatus.PUBLISHED,
-                   tag
-           );
+           tagService.getTagById(tagId);
        }
+       return findSummaryPage(PostStatus.PUBLISHED, null, categoryId, tagId, cursor, limit);
+    }
 
-       return postRepository.findAllByStatus(
-               PostStatus.PUBLISHED
-       );
+    @Override
+    @Transactional(readOnly = true)
+    public PostPage getDraftPosts(User user, String cursor, int limit) {
+        return findSummaryPage(PostStatus.DRAFT, user.getId(), null, null, cursor, limit);
     }
 
     @Override
-    public List<Post> getDraftPosts(User user) {
-        return postRepository.findAllByAuthorAndStatus(
-                user,
-                PostStatus.DRAFT
-        );
+    @Transactional(readOnly = true)
+    public List<PostSummary> getMostViewedPosts(int limit) {
+        return withTags(postRepository.findMostViewed(PostStatus.PUBLISHED, Limit.of(clampLimit(limit))));
     }
 
     @Override
     @Transactional
+    // published post counts shown in the category and tag listings may change
+    @CacheEvict(value = {CacheConfig.CATEGORIES, CacheConfig.TAGS}, allEntries = true)
     public Post createPost(User user, CreatePostRequest createPostRequest) {
         Post newPost = new Post();
         newPost.setTitle(createPostRequest.getTitle());
         newPost.setContent(createPostRequest.getContent());
         newPost.setStatus(createPostRequest.getStatus());
         newPost.setAuthor(user);
-        newPost.setReadingTime(calculateReadingTime(createPostRequest.getContent()));
+        ContentAnalysis contentAnalysis = ContentAnalysis.of(createPostRequest.getContent());
+        newPost.setReadingTime(contentAnalysis.readingTime());
+        newPost.setExcerpt(contentAnalysis.excerpt());
+        newPost.setRevision(1);
+        if(PostStatus.PUBLISHED.equals(createPostRequest.getStatus())){
+            newPost.setPublishSeq(postRepository.reservePublishSeqs(1));
+        }
 
         Category category = categoryService.getCategoryByID(createPostRequest.getCategoryId());
         newPost.setCategory(category);
@@ -96,20 +134,48 @@ public class PostServiceImpl implements PostService {
         List<Tag> tags = tagService.getTagByIds(tagIds);
         newPost.setTags(new HashSet<>(tags));
 
-        return postRepository.save(newPost);
+        Post savedPost = postRepository.save(newPost);
+        postBodyRepository.save(PostBody.of(savedPost, savedPost.getContent()));
+        postRevisionService.recordInitialRevisions(List.of(savedPost));
+        if(PostStatus.PUBLISHED.equals(savedPost.getStatus())){
+            categoryService.adjustPublishedPostCount(category.getId(), 1);
+            tagService.adjustPublishedPostCount(tagIds, 1);
+            domainEventService.publish(new DomainEvent.PostPublished(savedPost.getId(), savedPost.getVersion()));
+        }
+        return savedPost;
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.POSTS, key = "#id"),
+            @CacheEvict(value = {CacheConfig.CATEGORIES, CacheConfig.TAGS}, allEntries = true)
+    })
     public Post updatePost(UUID id, UpdatePostRequest updatePostRequest) {
-        Post existingPost = postRepository.findById(id)
+        // the autosave goes in first so the revision history keeps it
+        draftAutosaveService.flush(id);
+        PostBody postBody = postBodyRepository.findWithPostByPostId(id)
                 .orElseThrow(() -> new EntityNotFoundException("Post does not exist with id" + id));
+        Post existingPost = withContent(postBody);
+
+        boolean wasPublished = PostStatus.PUBLISHED.equals(existingPost.getStatus());
+        UUID previousCategoryId = existingPost.getCategory().getId();
+        Set<UUID> previousTagIds = existingPost.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
 
         existingPost.setTitle(updatePostRequest.getTitle());
+        String previousContent = existingPost.getContent();
         String postContent = updatePostRequest.getContent();
         existingPost.setContent(postContent);
+        // a new revision only when the content changed, so a title or tag change keeps a PATCH base valid
+        List<TextEdit> contentEdits = TextEdit.between(previousContent, postContent);
+        if(!contentEdits.isEmpty()){
+            existingPost.setRevision(existingPost.getRevision() + 1);
+            postBody.setContent(postContent);
+        }
         existingPost.setStatus(updatePostRequest.getStatus());
-        existingPost.setReadingTime(calculateReadingTime(postContent));
+        ContentAnalysis contentAnalysis = ContentAnalysis.of(postContent);
+        existingPost.setReadingTime(contentAnalysis.readingTime());
+        existingPost.setExcerpt(contentAnalysis.excerpt());
 
         UUID updatePostRequestCategoryId = updatePostRequest.getCategoryId();
         if(!existingPost.getCategory().getId().equals(updatePostRequestCategoryId)){
@@ -117,28 +183,236 @@ public class PostServiceImpl implements PostService {
             existingPost.setCategory(newCategory);
         }
 
-        Set<UUID> existingTagIds = existingPost.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
         Set<UUID> updatePostRequestTagIds = updatePostRequest.getTagIds();
-        if(!existingTagIds.equals(updatePostRequestTagIds)){
+        if(!previousTagIds.equals(updatePostRequestTagIds)){
             List<Tag> newTags = tagService.getTagByIds(updatePostRequestTagIds);
             existingPost.setTags(new HashSet<>(newTags));
         }
 
-        return postRepository.save(existingPost);
+        if(!wasPublished && PostStatus.PUBLISHED.equals(existingPost.getStatus())){
+            existingPost.setPublishSeq(postRepository.reservePublishSeqs(1));
+        }
+        // flushed so the row is locked and its version has moved on before the event takes it
+        Post savedPost = postRepository.saveAndFlush(existingPost);
+        if(!contentEdits.isEmpty()){
+            postRevisionService.recordRevision(savedPost, contentEdits);
+        }
+        boolean isPublished = PostStatus.PUBLISHED.equals(savedPost.getStatus());
+        adjustPublishedPostCounts(
+                wasPublished, previousCategoryId, previousTagIds,
+                isPublished, updatePostRequestCategoryId, updatePostRequestTagIds
+        );
+        if(isPublished){
+            domainEventService.publish(wasPublished
+                    ? new DomainEvent.PostUpdated(id, savedPost.getRevision(), savedPost.getVersion())
+                    : new DomainEvent.PostPublished(id, savedPost.getVersion()));
+        } else if(wasPublished){
+            domainEventService.publish(new DomainEvent.PostUnpublished(id, savedPost.getVersion()));
+        }
+        return savedPost;
+    }
+
+    @Override
+    @Transactional
+    // title, status, category and tags stay as they are, so the published post counts and their caches do too
+    @CacheEvict(value = CacheConfig.POSTS, key = "#id")
+    public Post patchPost(UUID id, PatchPostRequest patchPostRequest) {
+        draftAutosaveService.flush(id);
+        PostBody postBody = postBodyRepository.findWithPostByPostId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Post does not exist with id" + id));
+        Post existingPost = withContent(postBody);
+        // two editors patching the same revision at once are caught by the unique (post_id, revision) key instead
+        if(existingPost.getRevision() != patchPostRequest.getBaseRevision()){
+            throw new IllegalStateException("Post is at revision " + existingPost.getRevision()
+                    + ", the edits were made against revision " + patchPostRequest.getBaseRevision());
+        }
+
+        String postContent = TextEdit.apply(existingPost.getContent(), patchPostRequest.getEdits());
+        if(postContent.isBlank() || postContent.length() < MIN_CONTENT_LENGTH || postContent.length() > MAX_CONTENT_LENGTH){
+            throw new IllegalArgumentException("Content must be between " + MIN_CONTENT_LENGTH + " and "
+                    + MAX_CONTENT_LENGTH + " characters");
+        }
+        existingPost.setContent(postContent);
+        postBody.setContent(postContent);
+        existingPost.setRevision(existingPost.getRevision() + 1);
+        ContentAnalysis contentAnalysis = ContentAnalysis.of(postContent);
+        existingPost.setReadingTime(contentAnalysis.readingTime());
+        existingPost.setExcerpt(contentAnalysis.excerpt());
+
+        Post savedPost = postRepository.saveAndFlush(existingPost);
+        postRevisionService.recordRevision(savedPost, patchPostRequest.getEdits());
+        if(PostStatus.PUBLISHED.equals(savedPost.getStatus())){
+            domainEventService.publish(new DomainEvent.PostUpdated(id, savedPost.getRevision(), savedPost.getVersion()));
+        }
+        return savedPost;
     }
 
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.POSTS, key = "#id"),
+            @CacheEvict(value = {CacheConfig.CATEGORIES, CacheConfig.TAGS}, allEntries = true)
+    })
     public void deletePost(UUID id) {
-        Post post = getPost(id);
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Post Does not exist with Id"+ id));
+        if(PostStatus.PUBLISHED.equals(post.getStatus())){
+            categoryService.adjustPublishedPostCount(post.getCategory().getId(), -1);
+            tagService.adjustPublishedPostCount(post.getTags().stream().map(Tag::getId).toList(), -1);
+            // the delete checks the version loaded here, so no other change of the post commits in between
+            domainEventService.publish(new DomainEvent.PostDeleted(id, post.getVersion() + 1));
+        }
         postRepository.delete(post);
+        draftAutosaveService.discard(id);
+        postViewService.removeViews(id);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = {CacheConfig.CATEGORIES, CacheConfig.TAGS}, allEntries = true)
+    public List<ImportPostResult> importPosts(User author, List<ImportPostRequest> importPostRequests) {
+        // one query for the chunk's categories, one lookup plus one batched insert for its tags
+        Set<String> categoryNames = importPostRequests.stream()
+                .map(ImportPostRequest::getCategoryName)
+                .collect(Collectors.toSet());
+        Map<String, Category> categoriesByName = categoryService.getCategoriesByNames(categoryNames).stream()
+                .collect(Collectors.toMap(Category::getName, Function.identity()));
+        Set<String> tagNames = importPostRequests.stream()
+                .flatMap(importPostRequest -> importPostRequest.getTagNames().stream())
+                .collect(Collectors.toSet());
+        Map<String, Tag> tagsByName = tagNames.isEmpty()
+                ? Map.of()
+                : tagService.createTags(tagNames).stream().collect(Collectors.toMap(Tag::getName, Function.identity()));
+
+        ImportPostResult[] results = new ImportPostResult[importPostRequests.size()];
+        List<Post> newPosts = new ArrayList<>(importPostRequests.size());
+        List<Integer> newPostPositions = new ArrayList<>(importPostRequests.size());
+        for(int i = 0; i < importPostRequests.size(); i++){
+            ImportPostRequest importPostRequest = importPostRequests.get(i);
+            Category category = categoriesByName.get(importPostRequest.getCategoryName());
+            if(category == null){
+                results[i] = ImportPostResult.failed("Category Not Found With name " + importPostRequest.getCategoryName());
+                continue;
+            }
+            ContentAnalysis contentAnalysis = ContentAnalysis.of(importPostRequest.getContent());
+            newPosts.add(Post.builder()
+                    .title(importPostRequest.getTitle())
+                    .content(importPostRequest.getContent())
+                    .status(importPostRequest.getStatus())
+                    .author(author)
+                    .readingTime(contentAnalysis.readingTime())
+                    .excerpt(contentAnalysis.excerpt())
+                    .revision(1)
+                    .category(category)
+                    .tags(importPostRequest.getTagNames().stream()
+                            .map(tagsByName::get)
+                            .collect(Collectors.toCollection(HashSet::new)))
+                    .build());
+            newPostPositions.add(i);
+        }
+
+        List<Post> published = newPosts.stream()
+                .filter(post -> PostStatus.PUBLISHED.equals(post.getStatus()))
+                .toList();
+        if(!published.isEmpty()){
+            long publishSeq = postRepository.reservePublishSeqs(published.size()) - published.size();
+            for(Post post : published){
+                post.setPublishSeq(++publishSeq);
+            }
+        }
+
+        // ids are generated client side, so the inserts (and the post_tags rows) go out as JDBC batches on flush
+        List<Post> savedPosts = postRepository.saveAll(newPosts);
+        postBodyRepository.saveAll(savedPosts.stream()
+                .map(savedPost -> PostBody.of(savedPost, savedPost.getContent()))
+                .toList());
+        postRevisionService.recordInitialRevisions(savedPosts);
+
+        Map<UUID, Long> publishedPerCategory = new HashMap<>();
+        Map<UUID, Long> publishedPerTag = new HashMap<>();
+        List<DomainEvent> events = new ArrayList<>();
+        for(int i = 0; i < savedPosts.size(); i++){
+            Post savedPost = savedPosts.get(i);
+            results[newPostPositions.get(i)] = ImportPostResult.created(savedPost.getId());
+            if(PostStatus.PUBLISHED.equals(savedPost.getStatus())){
+                publishedPerCategory.merge(savedPost.getCategory().getId(), 1L, Long::sum);
+                savedPost.getTags().forEach(tag -> publishedPerTag.merge(tag.getId(), 1L, Long::sum));
+                events.add(new DomainEvent.PostPublished(savedPost.getId(), savedPost.getVersion()));
+            }
+        }
+        domainEventService.publishAll(events);
+        publishedPerCategory.forEach(categoryService::adjustPublishedPostCount);
+        // one update per distinct increment rather than per tag
+        publishedPerTag.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((delta, tagIds) -> tagService.adjustPublishedPostCount(tagIds, delta));
+
+        return List.of(results);
+    }
+
+    // only the difference between the old and new state of the post touches the counters
+    private void adjustPublishedPostCounts(boolean wasPublished, UUID previousCategoryId, Set<UUID> previousTagIds,
+                                           boolean isPublished, UUID categoryId, Set<UUID> tagIds){
+        long before = wasPublished ? 1 : 0;
+        long after = isPublished ? 1 : 0;
+
+        if(previousCategoryId.equals(categoryId)){
+            categoryService.adjustPublishedPostCount(categoryId, after - before);
+        } else {
+            categoryService.adjustPublishedPostCount(previousCategoryId, -before);
+            categoryService.adjustPublishedPostCount(categoryId, after);
+        }
+
+        Set<UUID> removedTagIds = new HashSet<>(previousTagIds);
+        removedTagIds.removeAll(tagIds);
+        Set<UUID> addedTagIds = new HashSet<>(tagIds);
+        addedTagIds.removeAll(previousTagIds);
+        Set<UUID> keptTagIds = new HashSet<>(tagIds);
+        keptTagIds.retainAll(previousTagIds);
+
+        tagService.adjustPublishedPostCount(removedTagIds, -before);
+        tagService.adjustPublishedPostCount(addedTagIds, after);
+        tagService.adjustPublishedPostCount(keptTagIds, after - before);
+    }
+
+    // the post of a body loaded with findWithPostByPostId, its content decompressed
+    private static Post withContent(PostBody postBody){
+        Post post = postBody.getPost();
+        post.setContent(postBody.getContent());
+        return post;
     }
 
-    private Integer calculateReadingTime(String content){
-        if(content == null || content.isEmpty()){
-            return 0;
+    private int clampLimit(int limit){
+        if(limit < 1){
+            return DEFAULT_PAGE_SIZE;
         }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private PostPage findSummaryPage(PostStatus status, UUID authorId, UUID categoryId, UUID tagId,
+                                     String cursor, int limit){
+        int pageSize = clampLimit(limit);
+        // one extra row tells us whether there is a next page without a count query
+        List<PostSummary> rows = postRepository.findSummaries(
+                status, authorId, categoryId, tagId, PostCursor.decode(cursor), pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<PostSummary> posts = withTags(hasNext ? rows.subList(0, pageSize) : rows);
+        return PostPage.builder()
+                .posts(posts)
+                .nextCursor(hasNext ? PostCursor.of(posts.get(posts.size() - 1)).encode() : null)
+                .build();
+    }
+
+    private List<PostSummary> withTags(List<PostSummary> summaries){
+        Map<UUID, List<PostTagSummary>> tagsByPostId = summaries.isEmpty()
+                ? Map.of()
+                : postRepository.findTagSummariesByPostIds(summaries.stream().map(PostSummary::id).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(PostTagSummary::postId));
 
-        int wordCount = content.trim().split("\\s+").length;
-        return (int) Math.ceil((double) wordCount / WORDS_PER_MINUTE);
+        return summaries.stream()
+                .map(post -> post.withTags(tagsByPostId.getOrDefault(post.id(), List.of())))
+                .toList();
     }
 }
@@ -0,0 +1,126 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.repositories.PostViewCountRepository;
+import com.chamika.blog.services.PostViewService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Views are added to a LongAdder per post: concurrent hits on a popular post land on different
+// striped cells instead of one contended counter or a locked database row. A scheduled flush moves
+// the deltas to post_views in one batched upsert, so views not yet flushed (at most one
+// blog.views.flush-interval) are lost if the process dies. A clean shutdown flushes them.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostViewServiceImpl implements PostViewService {
+
+    // standard SQL MERGE, understood by PostgreSQL 15+ and H2. Views of a post deleted since are dropped
+    // here rather than failing the foreign key (and with it the whole batch)
+    private static final String UPSERT_VIEWS = """
+            MERGE INTO post_views v
+            USING (SELECT p.id AS post_id, CAST(? AS BIGINT) AS delta FROM posts p WHERE p.id = ?) AS d
+            ON v.post_id = d.post_id
+            WHEN MATCHED THEN UPDATE SET view_count = v.view_count + d.delta
+            WHEN NOT MATCHED THEN INSERT (post_id, view_count) VALUES (d.post_id, d.delta)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostViewCountRepository postViewCountRepository;
+    private final CacheManager cacheManager;
+
+    private final ConcurrentHashMap<UUID, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordView(UUID postId) {
+        // plain get first, computeIfAbsent locks its bin even when the adder is already there
+        LongAdder views = pendingViews.get(postId);
+        if(views == null){
+            views = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        views.increment();
+        if(pendingViews.get(postId) != views){
+            // a flush found the adder idle and dropped it between our get and increment,
+            // move what landed on the dropped one over to the adder that is tracked now
+            long orphaned = views.sumThenReset();
+            if(orphaned > 0){
+                pendingViews.computeIfAbsent(postId, id -> new LongAdder()).add(orphaned);
+            }
+        }
+    }
+
+    @Override
+    public long getViewCount(UUID postId) {
+        long persisted = postViewCountRepository.findViewCountByPostId(postId).orElse(0L);
+        LongAdder pending = pendingViews.get(postId);
+        return pending == null ? persisted : persisted + pending.sum();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${blog.views.flush-interval:10s}")
+    public void flush() {
+        List<Map.Entry<UUID, Long>> deltas = new ArrayList<>();
+        pendingViews.forEach((postId, views) -> {
+            // sumThenReset takes each cell with getAndSet, so increments racing the flush stay for the next one
+            long delta = views.sumThenReset();
+            if(delta > 0){
+                deltas.add(Map.entry(postId, delta));
+            } else {
+                // idle for a whole interval, stop tracking it unless a view came in meanwhile
+                pendingViews.computeIfPresent(postId, (id, current) -> current == views && current.sum() == 0 ? null : current);
+            }
+        });
+        if(deltas.isEmpty()){
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_VIEWS, deltas, deltas.size(),
+                    (statement, delta) -> {
+                        statement.setLong(1, delta.getValue());
+                        statement.setObject(2, delta.getKey());
+                    }));
+        } catch (DataAccessException ex) {
+            // nothing was written, keep the views for the next flush
+            log.warn("Could not flush views of {} posts, retrying on the next flush", deltas.size(), ex);
+            deltas.forEach(delta -> pendingViews.computeIfAbsent(delta.getKey(), id -> new LongAdder()).add(delta.getValue()));
+            return;
+        }
+
+        Cache viewCounts = cacheManager.getCache(CacheConfig.VIEW_COUNTS);
+        if(viewCounts != null){
+            deltas.forEach(delta -> viewCounts.evict(delta.getKey()));
+        }
+    }
+
+    @Override
+    public void removeViews(UUID postId) {
+        // the post_views row goes with the post (on delete cascade), views recorded after this are dropped by the flush
+        pendingViews.remove(postId);
+        Cache viewCounts = cacheManager.getCache(CacheConfig.VIEW_COUNTS);
+        if(viewCounts != null){
+            viewCounts.evict(postId);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
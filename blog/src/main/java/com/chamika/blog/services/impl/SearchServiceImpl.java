@@ -0,0 +1,336 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.DomainEvent;
+import com.chamika.blog.domain.PostSearchHit;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostBody;
+import com.chamika.blog.repositories.PostBodyRepository;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.services.DomainEventHandler;
+import com.chamika.blog.services.SearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiBits;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Full-text index of PUBLISHED posts on local disk (Lucene: compressed postings, BM25 scoring).
+// Kept up to date by the post events (see DomainEventServiceImpl), and caught up from the database on
+// start and every blog.search.catch-up-interval. Each instance keeps its own index; with several instances an
+// event is handled by the one that claims it, the others pick the change up with their next catch-up: posts
+// updated since the last one are read again (an unpublish moves updatedAt too), and since a delete leaves no row
+// to find that way, the ids in the index are checked against the published posts and the rest removed.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchServiceImpl implements SearchService, DomainEventHandler {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+    private static final String CREATED_AT = "createdAt";
+
+    // commit user data: the start of the last catch-up, every post updated before it was read from the database.
+    // Only a catch-up moves it: handling an event says nothing about the posts whose events went elsewhere
+    private static final String INDEXED_UP_TO = "indexedUpTo";
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // transactions commit out of updatedAt order, so re-read a little before the mark
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+    private static final int CATCH_UP_BATCH_SIZE = 500;
+
+    // offsets in the postings let the highlighter build snippets without re-analysing the text
+    private static final FieldType BODY_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        BODY_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        BODY_TYPE.freeze();
+    }
+
+    private final PostRepository postRepository;
+    private final PostBodyRepository postBodyRepository;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+
+    @Value("${blog.search.index-dir}")
+    private Path indexDir;
+
+    @Value("${blog.search.max-results:50}")
+    private int maxResults;
+
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    private volatile LocalDateTime indexedUpTo = BEGINNING;
+
+    @PostConstruct
+    void open() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        indexWriter = new IndexWriter(FSDirectory.open(indexDir), config);
+        searcherManager = new SearcherManager(indexWriter, null);
+
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (INDEXED_UP_TO.equals(entry.getKey())) {
+                    indexedUpTo = LocalDateTime.parse(entry.getValue());
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${blog.search.catch-up-interval:5m}",
+            fixedDelayString = "${blog.search.catch-up-interval:5m}")
+    public void catchUp() throws IOException {
+        LocalDateTime since = indexedUpTo.minus(CATCH_UP_OVERLAP);
+        LocalDateTime startedAt = LocalDateTime.now();
+        long indexed = 0;
+
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Post> window;
+        do {
+            window = postRepository.findAllByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(
+                    since, position, Limit.of(CATCH_UP_BATCH_SIZE));
+            Map<UUID, String> plainTextByPostId = plainTextOf(window.getContent());
+            for (Post post : window.getContent()) {
+                apply(IndexedPost.of(post, plainTextByPostId.getOrDefault(post.getId(), "")));
+                indexed++;
+            }
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+        long removed = removeUnpublished();
+
+        commit(startedAt);
+        searcherManager.maybeRefresh();
+        log.info("Search index caught up with {} changed posts since {}, removed {} no longer published",
+                indexed, since, removed);
+    }
+
+    @Override
+    public List<PostSearchHit> search(String queryText, int limit) {
+        if (queryText == null || queryText.isBlank()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, maxResults));
+        // SimpleQueryParser never throws on user input, title matches weigh double
+        Query query = new SimpleQueryParser(analyzer, Map.of(TITLE, 2f, BODY, 1f)).parse(queryText);
+
+        List<PostSearchHit> hits = new ArrayList<>();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, size);
+                if (topDocs.scoreDocs.length == 0) {
+                    return List.of();
+                }
+                UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                        .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "... ", true))
+                        .withMaxNoHighlightPassages(1)
+                        .build();
+                String[] snippets = highlighter.highlight(BODY, query, topDocs, 1);
+
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    Document document = storedFields.document(scoreDoc.doc);
+                    hits.add(new PostSearchHit(
+                            UUID.fromString(document.get(ID)),
+                            document.get(TITLE),
+                            snippets[i],
+                            scoreDoc.score,
+                            LocalDateTime.parse(document.get(CREATED_AT))
+                    ));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        // a post deleted or unpublished in a window the index missed (crash before commit) is dropped here
+        Set<UUID> published = new HashSet<>(postRepository.findIdsByIdInAndStatus(
+                hits.stream().map(PostSearchHit::id).toList(), PostStatus.PUBLISHED));
+        return hits.stream().filter(hit -> published.contains(hit.id())).toList();
+    }
+
+    // the posts are read as they are now rather than as the events describe them, so a redelivered or late
+    // event never puts an older version back. Committed before returning: the outbox forgets delivered events
+    @Override
+    public void handle(List<DomainEvent> events) {
+        Set<UUID> postIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.PostEvent postEvent) {
+                postIds.add(postEvent.postId());
+            }
+        }
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        List<Post> posts = postRepository.findAllById(postIds);
+        Map<UUID, String> plainTextByPostId = plainTextOf(posts);
+        try {
+            for (Post post : posts) {
+                apply(IndexedPost.of(post, plainTextByPostId.getOrDefault(post.getId(), "")));
+                postIds.remove(post.getId());
+            }
+            // deleted since
+            for (UUID id : postIds) {
+                indexWriter.deleteDocuments(new Term(ID, id.toString()));
+            }
+            commit(indexedUpTo);
+            searcherManager.maybeRefresh();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // for the tests: search() drops hits that are no longer published, so it cannot tell
+    boolean isIndexed(UUID postId) throws IOException {
+        searcherManager.maybeRefresh();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.count(new TermQuery(new Term(ID, postId.toString()))) > 0;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        commit(indexedUpTo);
+        searcherManager.close();
+        indexWriter.close();
+    }
+
+    private void apply(IndexedPost post) throws IOException {
+        Term idTerm = new Term(ID, post.id().toString());
+        if (post.status() != PostStatus.PUBLISHED) {
+            indexWriter.deleteDocuments(idTerm);
+            return;
+        }
+        Document document = new Document();
+        document.add(new StringField(ID, post.id().toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, post.title(), Field.Store.YES));
+        document.add(new Field(BODY, post.text(), BODY_TYPE));
+        document.add(new StoredField(CREATED_AT, post.createdAt().toString()));
+        indexWriter.updateDocument(idTerm, document);
+    }
+
+    // every post in the index, checked against the database a batch at a time. A post published again after
+    // the check is updated after this catch-up started, so the next one puts it back if its event went elsewhere
+    private long removeUnpublished() throws IOException {
+        searcherManager.maybeRefresh();
+        IndexSearcher searcher = searcherManager.acquire();
+        long removed = 0;
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            Bits liveDocs = MultiBits.getLiveDocs(reader);
+            StoredFields storedFields = reader.storedFields();
+            List<UUID> batch = new ArrayList<>(CATCH_UP_BATCH_SIZE);
+            for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                batch.add(UUID.fromString(storedFields.document(doc, Set.of(ID)).get(ID)));
+                if (batch.size() == CATCH_UP_BATCH_SIZE) {
+                    removed += removeUnpublished(batch);
+                    batch.clear();
+                }
+            }
+            removed += removeUnpublished(batch);
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return removed;
+    }
+
+    private long removeUnpublished(List<UUID> indexedIds) throws IOException {
+        if (indexedIds.isEmpty()) {
+            return 0;
+        }
+        Set<UUID> gone = new HashSet<>(indexedIds);
+        postRepository.findIdsByIdInAndStatus(indexedIds, PostStatus.PUBLISHED).forEach(gone::remove);
+        for (UUID id : gone) {
+            indexWriter.deleteDocuments(new Term(ID, id.toString()));
+        }
+        return gone.size();
+    }
+
+    // upTo only moves forward, and only a finished catch-up passes a later one
+    private synchronized void commit(LocalDateTime upTo) throws IOException {
+        if (upTo.isAfter(indexedUpTo)) {
+            indexedUpTo = upTo;
+        }
+        if (indexWriter.hasUncommittedChanges()) {
+            indexWriter.setLiveCommitData(Map.of(INDEXED_UP_TO, indexedUpTo.toString()).entrySet());
+            indexWriter.commit();
+        }
+    }
+
+    // drafts are only removed from the index, their bodies are not needed
+    private Map<UUID, String> plainTextOf(List<Post> posts) {
+        return postBodyRepository.findAllById(posts.stream()
+                        .filter(post -> post.getStatus() == PostStatus.PUBLISHED)
+                        .map(Post::getId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(PostBody::getPostId,
+                        postBody -> ContentAnalysis.of(postBody.getContent()).plainText()));
+    }
+
+    private record IndexedPost(UUID id, String title, String text, PostStatus status, LocalDateTime createdAt) {
+        static IndexedPost of(Post post, String plainText) {
+            return new IndexedPost(post.getId(), post.getTitle(), plainText, post.getStatus(), post.getCreatedAt());
+        }
+    }
+}
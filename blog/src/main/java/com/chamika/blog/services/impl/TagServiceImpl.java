@@ -1,29 +1,39 @@
 package com.chamika.blog.services.impl;
 
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.DomainEvent;
 import com.chamika.blog.domain.entities.Tag;
 import com.chamika.blog.repositories.TagRepository;
+import com.chamika.blog.services.DomainEventService;
 import com.chamika.blog.services.TagService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "blog.service", histogram = true)
 @RequiredArgsConstructor
 public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
+    private final DomainEventService domainEventService;
 
     @Override
+    @Cacheable(CacheConfig.TAGS)
     public List<Tag> getTags() {
-        return tagRepository.findAllWithPostCount();
+        return tagRepository.findAll();
     }
 
     @Transactional
     @Override
+    @CacheEvict(value = CacheConfig.TAGS, allEntries = true)
     public List<Tag> createTags(Set<String> tagnames) {
         List<Tag> existingTags = tagRepository.findByNameIn(tagnames);
 
@@ -42,6 +52,9 @@ public class TagServiceImpl implements TagService {
         List<Tag> savedTags = new ArrayList<>();
         if(!newTags.isEmpty()){
             savedTags = tagRepository.saveAll(newTags);
+            domainEventService.publishAll(savedTags.stream()
+                    .map(tag -> new DomainEvent.TagCreated(tag.getId(), tag.getName()))
+                    .toList());
         }
 
         savedTags.addAll(existingTags);
@@ -50,12 +63,15 @@ public class TagServiceImpl implements TagService {
     }
 
     @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.TAGS, allEntries = true)
     public Void deleteTag(UUID id) {
         tagRepository.findById(id).ifPresent(tag -> {
             if(!tag.getPosts().isEmpty()){
                 throw new IllegalStateException("Cannot delete Tag with Posts");
             }
             tagRepository.deleteById(id);
+            domainEventService.publish(new DomainEvent.TagDeleted(id));
         });
 
         return null;
@@ -75,4 +91,11 @@ public class TagServiceImpl implements TagService {
         }
         return foundTags;
     }
+
+    @Override
+    public void adjustPublishedPostCount(Collection<UUID> ids, long delta) {
+        if(delta != 0 && !ids.isEmpty()){
+            tagRepository.adjustPublishedPostCount(ids, delta);
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package db.migration.common;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Adds the plain-text excerpt the listings show, and fills it in for the posts that already exist.
+// A Java migration because the excerpt comes from the HTML content, which SQL cannot do. The excerpt is
+// made here the way ContentAnalysis made it when this migration was written, so later changes there do
+// not change what this migration does.
+public class V1_2__post_excerpts extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+    // ContentAnalysis.EXCERPT_LENGTH at the time of this migration
+    private static final int EXCERPT_LENGTH = 200;
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("alter table posts add column excerpt varchar(500)");
+        }
+
+        try (Statement select = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(
+                     "update posts set excerpt = ? where id = ?")) {
+            // a cursor rather than every post in memory at once
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet posts = select.executeQuery("select id, content from posts")) {
+                int batched = 0;
+                while (posts.next()) {
+                    update.setString(1, excerptOf(posts.getString("content")));
+                    update.setObject(2, posts.getObject("id"));
+                    update.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+                update.executeBatch();
+            }
+        }
+    }
+
+    // markup dropped, the common entities decoded and whitespace collapsed, cut at the last full word
+    private static String excerptOf(String html) {
+        if (html == null) {
+            return "";
+        }
+        int length = html.length();
+        StringBuilder text = new StringBuilder(Math.min(length, EXCERPT_LENGTH + 1));
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length && text.length() <= EXCERPT_LENGTH) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                int close = html.indexOf('>', i + 1);
+                i = close < 0 ? length : close + 1;
+                pendingSpace = text.length() > 0;
+                continue;
+            }
+            int codePoint = c;
+            int next = i + 1;
+            if (c == '&') {
+                int semicolon = html.indexOf(';', i + 1);
+                int decoded = semicolon < 0 || semicolon - i > MAX_ENTITY_LENGTH
+                        ? -1 : decodeEntity(html.substring(i + 1, semicolon));
+                if (decoded >= 0) {
+                    codePoint = decoded;
+                    next = semicolon + 1;
+                }
+            }
+            i = next;
+            if (Character.isWhitespace(codePoint) || codePoint == '\u00A0') {
+                pendingSpace = text.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                text.append(' ');
+                pendingSpace = false;
+            }
+            text.appendCodePoint(codePoint);
+        }
+
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text.toString();
+        }
+        int lastSpace = text.lastIndexOf(" ", EXCERPT_LENGTH);
+        return text.substring(0, lastSpace > 0 ? lastSpace : EXCERPT_LENGTH) + "...";
+    }
+
+    private static int decodeEntity(String entity) {
+        if (entity.startsWith("#")) {
+            boolean hex = entity.startsWith("#x") || entity.startsWith("#X");
+            String digits = entity.substring(hex ? 2 : 1);
+            if (digits.isEmpty() || Character.digit(digits.charAt(0), hex ? 16 : 10) < 0) {
+                return -1;
+            }
+            try {
+                int value = Integer.parseInt(digits, hex ? 16 : 10);
+                return value >= 0 && value <= Character.MAX_CODE_POINT ? value : -1;
+            } catch (NumberFormatException ex) {
+                return -1;
+            }
+        }
+        return switch (entity) {
+            case "amp" -> '&';
+            case "lt" -> '<';
+            case "gt" -> '>';
+            case "quot" -> '"';
+            case "apos" -> '\'';
+            case "nbsp" -> '\u00A0';
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package db.migration.common;
+
+import com.github.luben.zstd.Zstd;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Moves post content out of posts into post_bodies (see PostBody). A Java migration because the
+// bodies are stored zstd compressed, which neither database can do in SQL.
+public class V5__post_bodies extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+    // PostBody.COMPRESSION_LEVEL at the time of this migration
+    private static final int COMPRESSION_LEVEL = 3;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    create table post_bodies (
+                        length integer not null,
+                        post_id uuid not null,
+                        data bytea not null,
+                        primary key (post_id)
+                    )""");
+            ddl.execute("alter table post_bodies add constraint fk_post_bodies_post_id "
+                    + "foreign key (post_id) references posts on delete cascade");
+        }
+
+        try (Statement select = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into post_bodies (post_id, length, data) values (?, ?, ?)")) {
+            // a cursor rather than every body in memory at once
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet posts = select.executeQuery("select id, content from posts")) {
+                int batched = 0;
+                while (posts.next()) {
+                    byte[] utf8 = posts.getString("content").getBytes(StandardCharsets.UTF_8);
+                    insert.setObject(1, posts.getObject("id"));
+                    insert.setInt(2, utf8.length);
+                    insert.setBytes(3, Zstd.compress(utf8, COMPRESSION_LEVEL));
+                    insert.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("alter table posts drop column content");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- the keyset listings seek on (created_at, id) within a status, a category or an author
+create index idx_posts_status_created_at_id on posts (status, created_at, id);
+create index idx_posts_category_status_created_at_id on posts (category_id, status, created_at, id);
+create index idx_posts_author_status_created_at_id on posts (author_id, status, created_at, id);
@@ -0,0 +1,10 @@
+-- published posts per category and tag, kept up to date by the post writes
+alter table categories add column published_post_count bigint default 0 not null;
+alter table tags add column published_post_count bigint default 0 not null;
+
+-- counted once here for the posts that already exist, runs before any instance serves writes
+update categories c set published_post_count =
+    (select count(*) from posts p where p.category_id = c.id and p.status = 'PUBLISHED');
+update tags t set published_post_count =
+    (select count(*) from post_tags pt join posts p on p.id = pt.post_id
+     where pt.tag_id = t.id and p.status = 'PUBLISHED');
@@ -0,0 +1,12 @@
+-- view counts, flushed from memory in batches (see PostViewServiceImpl)
+create table post_views (
+    view_count bigint not null,
+    post_id uuid not null,
+    primary key (post_id)
+);
+
+-- most viewed posts
+create index idx_post_views_view_count on post_views (view_count);
+
+alter table post_views add constraint fk_post_views_post_id
+    foreign key (post_id) references posts on delete cascade;
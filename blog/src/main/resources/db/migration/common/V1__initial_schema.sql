@@ -0,0 +1,48 @@
+-- The schema as ddl-auto=update left it before the migrations took over, constraint names included,
+-- so an existing database can be baselined at this version (spring.flyway.baseline-on-migrate).
+-- Everything added since lives in the later migrations, which a baselined database then runs.
+
+create table categories (
+    id uuid not null,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table tags (
+    id uuid not null,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table users (
+    created_at timestamp(6) not null,
+    id uuid not null,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create table posts (
+    reading_time integer not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    author_id uuid not null,
+    category_id uuid not null,
+    id uuid not null,
+    content text not null,
+    status varchar(255) not null check (status in ('DRAFT','PUBLISHED')),
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table post_tags (
+    post_id uuid not null,
+    tag_id uuid not null,
+    primary key (post_id, tag_id)
+);
+
+alter table post_tags add constraint FKm6cfovkyqvu5rlm6ahdx3eavj foreign key (tag_id) references tags;
+alter table post_tags add constraint FKkifam22p4s1nm3bkmp1igcn5w foreign key (post_id) references posts;
+alter table posts add constraint FK6xvn0811tkyo3nfjk2xvqx6ns foreign key (author_id) references users;
+alter table posts add constraint FKijnwr3brs8vaosl80jg9rp7uc foreign key (category_id) references categories;
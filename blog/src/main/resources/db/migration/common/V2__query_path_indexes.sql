@@ -0,0 +1,6 @@
+-- listings and the export filtered by tag (JOIN post_tags WHERE tag_id = ?), and the foreign key
+-- check when a tag is deleted. The primary key starts with post_id, so it cannot serve these.
+create index idx_post_tags_tag_id_post_id on post_tags (tag_id, post_id);
+
+-- the search index catch-up scrolls posts changed since its last commit in (updated_at, id) order
+create index idx_posts_updated_at_id on posts (updated_at, id);
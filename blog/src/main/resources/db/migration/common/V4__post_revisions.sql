@@ -0,0 +1,20 @@
+-- the content revision a post is at. Posts from before this migration stay at 0 with no history,
+-- their first edit starts it with a full snapshot
+alter table posts add column revision integer default 0 not null;
+
+-- one row per content revision: a deflated full copy of the content every few revisions, and in
+-- between the deflated edits against the previous revision (see PostRevisionServiceImpl)
+create table post_revisions (
+    revision integer not null,
+    snapshot boolean not null,
+    created_at timestamp(6) not null,
+    id uuid not null,
+    post_id uuid not null,
+    data bytea not null,
+    primary key (id),
+    -- also what turns two concurrent edits of the same revision into a conflict
+    constraint uk_post_revisions_post_id_revision unique (post_id, revision)
+);
+
+alter table post_revisions add constraint fk_post_revisions_post_id
+    foreign key (post_id) references posts on delete cascade;
@@ -0,0 +1,20 @@
+-- domain events written in the same transaction as the change they describe, removed once every
+-- handler has taken them (see DomainEventServiceImpl). Rows with failed_at set ran out of retries
+-- and stay until someone looks at them
+create table outbox_events (
+    attempts integer default 0 not null,
+    created_at timestamp(6) not null,
+    failed_at timestamp(6),
+    next_attempt_at timestamp(6),
+    aggregate_id uuid not null,
+    id uuid not null,
+    type varchar(100) not null,
+    payload varchar(1000) not null,
+    primary key (id)
+);
+
+-- the dispatcher reads the oldest pending events first
+create index idx_outbox_events_pending on outbox_events (failed_at, created_at, id);
+
+-- and checks them against the earlier events of their aggregate
+create index idx_outbox_events_aggregate on outbox_events (aggregate_id, created_at, id);
@@ -0,0 +1,3 @@
+-- optimistic lock of posts (Post.version), moves on with every update of the row.
+-- the autosave flush only writes a draft that is still at the version its autosave was taken against
+alter table posts add column version bigint default 0 not null;
@@ -0,0 +1,10 @@
+-- the events of an aggregate are handled in aggregate_version order (DomainEvent.aggregateVersion), which
+-- follows the commits of the aggregate, rather than in created_at order, which follows each instance's clock
+alter table outbox_events add column aggregate_version bigint default 0 not null;
+
+-- a dispatcher claims events by setting claimed_until in a short transaction of its own and handles them after
+-- that commits. Other instances skip the events until then, so a claim of an instance that died runs out
+alter table outbox_events add column claimed_until timestamp(6);
+
+drop index idx_outbox_events_aggregate;
+create index idx_outbox_events_aggregate on outbox_events (aggregate_id, aggregate_version, created_at, id);
@@ -0,0 +1,11 @@
+-- publish order of posts, for the live feed (PostFeedServiceImpl). A post that becomes PUBLISHED takes the next
+-- value of the one row of publish_sequence, and the row stays locked until its transaction commits. So posts
+-- become visible in publish_seq order, and an instance polling for publish_seq past its cursor never skips
+-- one that commits late. Posts published before this have none, the feed only streams what comes after
+create table publish_sequence (
+    last_value bigint not null
+);
+insert into publish_sequence (last_value) values (0);
+
+alter table posts add column publish_seq bigint;
+create index idx_posts_publish_seq on posts (publish_seq);
@@ -0,0 +1,3 @@
+-- existsByNameIgnoreCase is generated as upper(name) = upper(?), which the unique index on name
+-- cannot serve. H2 has no expression indexes, so this one only exists on PostgreSQL.
+create index idx_categories_upper_name on categories (upper(name));
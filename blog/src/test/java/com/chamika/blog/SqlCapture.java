@@ -0,0 +1,80 @@
+package com.chamika.blog;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Records every statement that reaches the DataSource from the capturing thread, together with the
+// application code that sent it, so a blown query budget can say which call site to look at.
+public class SqlCapture implements QueryExecutionListener {
+
+    private static final String APPLICATION_PACKAGE = "com.chamika.blog.";
+
+    private final ThreadLocal<List<CapturedStatement>> captured = new ThreadLocal<>();
+
+    public record CapturedStatement(String sql, String callSite, long elapsedMillis) {
+    }
+
+    public void start() {
+        captured.set(new ArrayList<>());
+    }
+
+    public List<CapturedStatement> stop() {
+        List<CapturedStatement> statements = captured.get();
+        captured.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<CapturedStatement> statements = captured.get();
+        if (statements == null) {
+            return;
+        }
+        // a JDBC batch is one round trip, so it counts once
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        if (execInfo.isBatch()) {
+            sql = "[batch of " + execInfo.getBatchSize() + "] " + sql;
+        }
+        statements.add(new CapturedStatement(sql, callSite(), execInfo.getElapsedTime()));
+    }
+
+    // the SQL grouped by the code that sent it, most statements first
+    public static String report(List<CapturedStatement> statements) {
+        Map<String, List<CapturedStatement>> byCallSite = statements.stream()
+                .collect(Collectors.groupingBy(CapturedStatement::callSite));
+        StringBuilder report = new StringBuilder();
+        byCallSite.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
+                .forEach(entry -> {
+                    report.append(String.format("%n  %dx %s", entry.getValue().size(), entry.getKey()));
+                    entry.getValue().stream()
+                            .collect(Collectors.groupingBy(CapturedStatement::sql, Collectors.counting()))
+                            .forEach((sql, count) -> report.append(String.format("%n      %dx %s", count, sql)));
+                });
+        return report.toString();
+    }
+
+    // innermost application frames outside the repositories, e.g. "PostServiceImpl.getPost:58 <- PostController.getPost:190"
+    private static String callSite() {
+        List<String> frames = StackWalker.getInstance().walk(stack -> stack
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .filter(frame -> !frame.getClassName().startsWith(APPLICATION_PACKAGE + "repositories."))
+                .filter(frame -> !frame.getClassName().equals(SqlCapture.class.getName()))
+                .limit(2)
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .toList());
+        return frames.isEmpty() ? "(outside application code)" : String.join(" <- ", frames);
+    }
+}
@@ -0,0 +1,36 @@
+package com.chamika.blog;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// @Import into a test to route the DataSource through a datasource-proxy that feeds SqlCapture
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlCaptureConfiguration {
+
+    @Bean
+    public SqlCapture sqlCapture() {
+        return new SqlCapture();
+    }
+
+    @Bean
+    static BeanPostProcessor sqlCapturingDataSource(ObjectProvider<SqlCapture> sqlCapture) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("sql-capture")
+                            .listener(sqlCapture.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
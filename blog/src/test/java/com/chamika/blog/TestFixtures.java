@@ -0,0 +1,65 @@
+package com.chamika.blog;
+
+import com.chamika.blog.domain.CreatePostRequest;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.CategoryRepository;
+import com.chamika.blog.repositories.UserRepository;
+import com.chamika.blog.services.PostService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+
+// @Import into a test for an author, a category and posts of its own. The tests share one database,
+// so every name is made unique. Posts are created through PostService, which a @DataJpaTest does not have
+@TestComponent
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ObjectProvider<PostService> postService;
+
+    public TestFixtures(UserRepository userRepository, CategoryRepository categoryRepository,
+                        ObjectProvider<PostService> postService) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.postService = postService;
+    }
+
+    public String unique(String name) {
+        return name + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public User author(String name) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(unique(name) + "@example.com")
+                .password("secret")
+                .posts(new ArrayList<>())
+                .build());
+    }
+
+    public Category category(String name) {
+        return categoryRepository.save(Category.builder().name(unique(name)).posts(new ArrayList<>()).build());
+    }
+
+    public Post post(User author, Category category, String title, String content, PostStatus status) {
+        return post(author, category, title, content, status, Set.of());
+    }
+
+    public Post post(User author, Category category, String title, String content, PostStatus status,
+                     Set<UUID> tagIds) {
+        return postService.getObject().createPost(author, CreatePostRequest.builder()
+                .title(title)
+                .content(content)
+                .categoryId(category.getId())
+                .tagIds(tagIds)
+                .status(status)
+                .build());
+    }
+}
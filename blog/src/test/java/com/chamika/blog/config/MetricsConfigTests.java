@@ -0,0 +1,46 @@
+package com.chamika.blog.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// metrics export is off in tests unless asked for, so this context has the Prometheus registry.
+// the rest is what application.properties sets for production
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.observations.annotations.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsConfigTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeEndpointExposesServiceSecurityPoolAndHibernateMeters() throws Exception {
+        mockMvc.perform(get("/api/v1/categories")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/posts/drafts").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt"));
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("blog_service_seconds_bucket{class=\"com.chamika.blog.services.impl.CategoryServiceImpl\"")
+                .contains("blog_auth_token_validations_total{outcome=\"invalid\"} 1.0")
+                .contains("blog_http_server_sql_statements_bucket{method=\"GET\",uri=\"/api/v1/categories\"")
+                .contains("hikaricp_connections_active")
+                .contains("blog_cache_post_responses_bytes")
+                .contains("hibernate_query_executions_total");
+    }
+}
@@ -0,0 +1,53 @@
+package com.chamika.blog.controllers;
+
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void loginRehashesPasswordsStoredWithAnotherWorkFactor() throws Exception {
+        String email = "rehash-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        userRepository.save(User.builder()
+                .name("rehash")
+                .email(email)
+                .password("{bcrypt}" + new BCryptPasswordEncoder(5).encode("secret"))
+                .build());
+
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk());
+
+        // the test profile runs with blog.security.bcrypt-strength=4
+        String rehashed = userRepository.findByEmail(email).orElseThrow().getPassword();
+        assertThat(rehashed).startsWith("{bcrypt}$2a$04$");
+
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk());
+        assertThat(userRepository.findByEmail(email).orElseThrow().getPassword()).isEqualTo(rehashed);
+    }
+}
@@ -0,0 +1,407 @@
+package com.chamika.blog.controllers;
+
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.EncodedPostResponse;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.UpdatePostRequest;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.CategoryRepository;
+import com.chamika.blog.security.BlogUserDetails;
+import com.chamika.blog.services.AuthenticationService;
+import com.chamika.blog.services.PostService;
+import com.chamika.blog.services.TagService;
+import com.chamika.blog.services.impl.PostFeedServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestFixtures.class)
+class PostControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PostFeedServiceImpl postFeedService;
+
+    private static final Pattern FEED_EVENT = Pattern.compile("id:(\\d+)\nevent:post-published\ndata:(.*)\n");
+
+    @Test
+    void answersRepeatedPostReadsWithNotModifiedUntilThePostChanges() throws Exception {
+        User author = fixtures.author("etag");
+        Category category = fixtures.category("etag");
+        Post post = fixtures.post(author, category, "conditional", "conditional get body", PostStatus.PUBLISHED);
+
+        String eTag = mockMvc.perform(get("/api/v1/posts/{id}", post.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+
+        mockMvc.perform(get("/api/v1/posts/{id}", post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("conditional, edited")
+                .content("conditional get body")
+                .categoryId(category.getId())
+                .tagIds(Set.of())
+                .status(PostStatus.PUBLISHED)
+                .build());
+
+        mockMvc.perform(get("/api/v1/posts/{id}", post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void servesPublishedPostsFromTheEncodedResponseCacheUntilTheyChange() throws Exception {
+        User author = fixtures.author("cached");
+        Category category = fixtures.category("cached");
+        Post post = fixtures.post(author, category, "cached", "<p>cached response body</p>", PostStatus.PUBLISHED);
+        Post draft = fixtures.post(author, category, "draft", "<p>draft response body</p>", PostStatus.DRAFT);
+        Cache postResponses = cacheManager.getCache(CacheConfig.POST_RESPONSES);
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/v1/posts/{id}", post.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).endsWith("-gzip\"");
+        LocalDateTime published = postService.getPostVersion(post.getId());
+        assertThat(postResponses.get(new EncodedPostResponse.Key(post.getId(), published))).isNotNull();
+
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/v1/posts/{id}", post.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(plain.getContentAsString());
+        assertThat(readTree(plain.getContentAsString()).get("title").asText()).isEqualTo("cached");
+        // the count changes on every read, so it is not part of the cached body
+        assertThat(readTree(plain.getContentAsString()).has("viewCount")).isFalse();
+
+        mockMvc.perform(get("/api/v1/posts/{id}", post.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipped.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        // q=0 rules gzip out
+        MockHttpServletResponse refused = mockMvc.perform(get("/api/v1/posts/{id}", post.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(refused.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(refused.getContentAsString()).isEqualTo(plain.getContentAsString());
+        // every read above counts, the 304 included
+        String views = mockMvc.perform(get("/api/v1/posts/{id}/views", post.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(readTree(views).get("viewCount").asLong()).isEqualTo(4);
+        mockMvc.perform(get("/api/v1/posts/{id}/views", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        Post beforeUpdate = postService.getPost(post.getId());
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("cached, edited")
+                .content("<p>cached response body</p>")
+                .categoryId(category.getId())
+                .tagIds(Set.of())
+                .status(PostStatus.PUBLISHED)
+                .build());
+        LocalDateTime edit = postService.getPostVersion(post.getId());
+        assertThat(postResponses.get(new EncodedPostResponse.Key(post.getId(), edit))).isNull();
+        // a read that loaded the post before the update and cached it after the eviction
+        cacheManager.getCache(CacheConfig.POSTS).put(post.getId(), beforeUpdate);
+        MockHttpServletResponse edited = mockMvc.perform(get("/api/v1/posts/{id}", post.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(readTree(edited.getContentAsString()).get("title").asText()).isEqualTo("cached, edited");
+        assertThat(edited.getHeader(HttpHeaders.ETAG))
+                .isEqualTo(ConditionalRequests.postETag(post.getId(), edit, false));
+        assertThat(postResponses.get(new EncodedPostResponse.Key(post.getId(), edit))).isNotNull();
+
+        String draftBody = gunzip(mockMvc.perform(get("/api/v1/posts/{id}", draft.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+        assertThat(readTree(draftBody).get("title").asText()).isEqualTo("draft");
+        assertThat(postResponses.get(new EncodedPostResponse.Key(draft.getId(), postService.getPostVersion(draft.getId()))))
+                .isNull();
+    }
+
+    @Test
+    void patchesContentAgainstItsRevisionAndRebuildsEveryEarlierRevision() throws Exception {
+        User author = fixtures.author("editor");
+        Category category = fixtures.category("patch");
+        Post post = fixtures.post(author, category, "patched", "<p>revision one</p>", PostStatus.PUBLISHED);
+        String token = authenticationService.generateToken(new BlogUserDetails(author));
+        assertThat(post.getRevision()).isEqualTo(1);
+
+        // the test snapshot interval is 4, so the later revisions replay deltas on top of a second snapshot
+        List<String> contents = new ArrayList<>(List.of("<p>revision one</p>"));
+        for(int revision = 2; revision <= 7; revision++){
+            String previous = contents.get(contents.size() - 1);
+            String edit = "{\"baseRevision\":" + (revision - 1) + ",\"edits\":["
+                    + "{\"offset\":3,\"insert\":\"(" + revision + ") \"},"
+                    + "{\"offset\":" + (previous.length() - 4) + ",\"deleteCount\":4}]}";
+            String response = mockMvc.perform(patch("/api/v1/posts/{id}", post.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(edit))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String expected = "<p>(" + revision + ") " + previous.substring(3, previous.length() - 4);
+            contents.add(expected);
+            assertThat(readTree(response).get("content").asText()).isEqualTo(expected);
+            assertThat(readTree(response).get("revision").asInt()).isEqualTo(revision);
+        }
+
+        mockMvc.perform(patch("/api/v1/posts/{id}", post.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baseRevision\":6,\"edits\":[{\"offset\":0,\"insert\":\"stale \"}]}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/v1/posts/{id}", post.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"baseRevision\":7,\"edits\":[{\"offset\":10000,\"deleteCount\":1}]}"))
+                .andExpect(status().isBadRequest());
+
+        // a title change leaves the content revision alone
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("patched, retitled")
+                .content(contents.get(contents.size() - 1))
+                .categoryId(category.getId())
+                .tagIds(Set.of())
+                .status(PostStatus.PUBLISHED)
+                .build());
+        assertThat(postService.getPost(post.getId()).getRevision()).isEqualTo(7);
+
+        for(int revision = 1; revision <= 7; revision++){
+            String response = mockMvc.perform(get("/api/v1/posts/{id}/revisions/{revision}", post.getId(), revision)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(readTree(response).get("content").asText()).isEqualTo(contents.get(revision - 1));
+        }
+        mockMvc.perform(get("/api/v1/posts/{id}/revisions/{revision}", post.getId(), 8)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/posts/{id}/revisions/{revision}", post.getId(), 1))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void importsNdjsonPostsAndReportsEveryLine() throws Exception {
+        User author = fixtures.author("importer");
+        Category category = fixtures.category("import");
+        String tagName = fixtures.unique("imported");
+        String token = authenticationService.generateToken(new BlogUserDetails(author));
+        String body = String.join("\n",
+                "{\"title\":\"first import\",\"content\":\"<p>imported body one</p>\",\"category\":\"" + category.getName()
+                        + "\",\"tags\":[\"" + tagName + "\"],\"status\":\"PUBLISHED\"}",
+                "{\"title\":\"unknown category\",\"content\":\"<p>imported body two</p>\",\"category\":\""
+                        + fixtures.unique("missing") + "\",\"status\":\"PUBLISHED\"}",
+                "not json",
+                "{\"title\":\"x\",\"content\":\"<p>imported body three</p>\",\"category\":\"" + category.getName()
+                        + "\",\"status\":\"DRAFT\"}");
+
+        String response = mockMvc.perform(post("/api/v1/posts/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> results = response.lines().map(this::readTree).toList();
+        assertThat(results).extracting(result -> result.get("line").asLong()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        JsonNode created = results.stream().filter(result -> result.get("line").asLong() == 1).findFirst().orElseThrow();
+        assertThat(created.get("error").isNull()).isTrue();
+        assertThat(results).filteredOn(result -> result.get("line").asLong() != 1)
+                .allSatisfy(result -> assertThat(result.get("error").asText()).isNotBlank());
+
+        Post imported = postService.getPost(UUID.fromString(created.get("id").asText()));
+        assertThat(imported.getExcerpt()).isEqualTo("imported body one");
+        assertThat(imported.getTags()).extracting(Tag::getName).containsExactly(tagName);
+        assertThat(categoryRepository.findById(category.getId()).orElseThrow().getPublishedPostCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportsPublishedPostsOfACategoryAsGzippedNdjson() throws Exception {
+        User author = fixtures.author("exporter");
+        Category category = fixtures.category("export");
+        Tag tag = tagService.createTags(Set.of(fixtures.unique("exported"))).get(0);
+        for(PostStatus status : List.of(PostStatus.PUBLISHED, PostStatus.PUBLISHED, PostStatus.DRAFT)){
+            fixtures.post(author, category, "export " + status, "<p>exported body</p>", status, Set.of(tag.getId()));
+        }
+        String token = authenticationService.generateToken(new BlogUserDetails(author));
+
+        mockMvc.perform(get("/api/v1/posts/export"))
+                .andExpect(status().isForbidden());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/posts/export")
+                        .param("categoryId", category.getId().toString())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        String body = gunzip(response.getContentAsByteArray());
+        List<JsonNode> posts = body.lines().map(this::readTree).toList();
+        assertThat(posts).hasSize(2).allSatisfy(post -> {
+            assertThat(post.get("status").asText()).isEqualTo("PUBLISHED");
+            assertThat(post.get("category").asText()).isEqualTo(category.getName());
+            assertThat(post.get("tags").get(0).asText()).isEqualTo(tag.getName());
+            assertThat(post.get("author").asText()).isEqualTo("exporter");
+        });
+    }
+
+    @Test
+    void streamsNewlyPublishedPostsOfACategoryAndReplaysThemAfterLastEventId() throws Exception {
+        User author = fixtures.author("feeder");
+        Category category = fixtures.category("feed");
+        Category other = fixtures.category("feed-other");
+        Tag tag = tagService.createTags(Set.of(fixtures.unique("fed"))).get(0);
+
+        MockHttpServletResponse feed = mockMvc.perform(get("/api/v1/posts/feed")
+                        .param("categoryId", category.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        Post draft = createFeedPost(author, category, Set.of(tag.getId()), PostStatus.DRAFT);
+        Post elsewhere = createFeedPost(author, other, Set.of(), PostStatus.PUBLISHED);
+        Post first = createFeedPost(author, category, Set.of(tag.getId()), PostStatus.PUBLISHED);
+        postFeedService.poll();
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(feedEvents(feed)).containsKey(first.getId()));
+        String firstEventId = feedEvents(feed).get(first.getId());
+        JsonNode published = objectMapper.readTree(feed.getContentAsString().lines()
+                .filter(line -> line.startsWith("data:"))
+                .findFirst().orElseThrow().substring("data:".length()));
+        assertThat(published.get("title").asText()).isEqualTo("feed PUBLISHED");
+        assertThat(published.get("categoryId").asText()).isEqualTo(category.getId().toString());
+        assertThat(published.get("tagIds").get(0).asText()).isEqualTo(tag.getId().toString());
+
+        Post second = createFeedPost(author, category, Set.of(), PostStatus.PUBLISHED);
+        postFeedService.poll();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(feedEvents(feed)).containsKey(second.getId()));
+        assertThat(feedEvents(feed)).doesNotContainKeys(draft.getId(), elsewhere.getId());
+
+        // a client coming back gets what it missed, and only that
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/v1/posts/feed")
+                        .param("categoryId", category.getId().toString())
+                        .header("Last-Event-ID", firstEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(feedEvents(resumed)).containsOnlyKeys(second.getId()));
+
+        // one that was gone for longer than the replay covers is told to start over
+        MockHttpServletResponse stale = mockMvc.perform(get("/api/v1/posts/feed")
+                        .header("Last-Event-ID", "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(stale.getContentAsString()).contains("event:resync"));
+
+        mockMvc.perform(get("/api/v1/posts/feed").param("categoryId", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    private Post createFeedPost(User author, Category category, Set<UUID> tagIds, PostStatus status) {
+        return fixtures.post(author, category, "feed " + status, "<p>fed body</p>", status, tagIds);
+    }
+
+    // post id to event id of the post-published events streamed so far
+    private Map<UUID, String> feedEvents(MockHttpServletResponse response) throws Exception {
+        Map<UUID, String> events = new LinkedHashMap<>();
+        Matcher event = FEED_EVENT.matcher(response.getContentAsString());
+        while (event.find()) {
+            events.put(UUID.fromString(objectMapper.readTree(event.group(2)).get("id").asText()), event.group(1));
+        }
+        return events;
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        return new String(new GZIPInputStream(new ByteArrayInputStream(bytes)).readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    void answersRepeatedCategoryListingWithNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/v1/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+}
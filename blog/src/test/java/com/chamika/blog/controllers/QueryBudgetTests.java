@@ -0,0 +1,280 @@
+package com.chamika.blog.controllers;
+
+import com.chamika.blog.SqlCapture;
+import com.chamika.blog.SqlCaptureConfiguration;
+import com.chamika.blog.domain.ImportPostRequest;
+import com.chamika.blog.domain.ImportPostResult;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.CategoryRepository;
+import com.chamika.blog.repositories.UserRepository;
+import com.chamika.blog.security.BlogUserDetails;
+import com.chamika.blog.services.AuthenticationService;
+import com.chamika.blog.services.DomainEventService;
+import com.chamika.blog.services.DraftAutosaveService;
+import com.chamika.blog.services.PostService;
+import com.chamika.blog.services.PostViewService;
+import com.chamika.blog.services.TagService;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Statement and rough latency budgets per endpoint on a blog of a few hundred posts. A budget that
+// is blown means a mapping or fetch change made the endpoint's query count grow (N+1), the failure
+// lists the SQL grouped by the code that sent it. Caches (Spring and Hibernate second-level) are cleared
+// first, so budgets are cold paths.
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlCaptureConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int POSTS = 400;
+    private static final int CATEGORIES = 20;
+    private static final int TAGS = 60;
+    private static final int TAGS_PER_POST = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostViewService postViewService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DraftAutosaveService draftAutosaveService;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    private String suffix;
+    private User author;
+    private String token;
+    private List<Category> categories;
+    private List<Tag> tags;
+    private List<UUID> postIds;
+
+    @BeforeAll
+    void seed() throws Exception {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        author = userRepository.save(User.builder()
+                .name("budget")
+                .email("budget-" + suffix + "@example.com")
+                .password(passwordEncoder.encode("secret"))
+                .build());
+        token = authenticationService.generateToken(new BlogUserDetails(author));
+        categories = categoryRepository.saveAll(IntStream.range(0, CATEGORIES)
+                .mapToObj(i -> Category.builder().name("budget-" + suffix + "-" + i).build())
+                .toList());
+        tags = tagService.createTags(IntStream.range(0, TAGS)
+                .mapToObj(i -> "budget-" + suffix + "-" + i)
+                .collect(Collectors.toSet()));
+
+        List<ImportPostRequest> posts = IntStream.range(0, POSTS)
+                .mapToObj(i -> ImportPostRequest.builder()
+                        .title("Budget post " + i)
+                        .content("<p>" + "Query budgets keep list endpoints honest. ".repeat(40) + i + "</p>")
+                        .categoryName(categories.get(i % CATEGORIES).getName())
+                        .tagNames(IntStream.range(0, TAGS_PER_POST)
+                                .mapToObj(t -> tags.get((i + t * 7) % TAGS).getName())
+                                .collect(Collectors.toSet()))
+                        .status(i % 10 == 0 ? PostStatus.DRAFT : PostStatus.PUBLISHED)
+                        .build())
+                .toList();
+        postIds = postService.importPosts(author, posts).stream()
+                .map(ImportPostResult::id)
+                .filter(Objects::nonNull)
+                .toList();
+        assertThat(postIds).hasSize(POSTS);
+        // the search budget should measure a search with hits
+        domainEventService.dispatch();
+
+        for (int i = 0; i < 50; i++) {
+            for (int view = 0; view <= i; view++) {
+                postViewService.recordView(postIds.get(i));
+            }
+        }
+        postViewService.flush();
+
+        // class loading and first-call initialization are not what the time budgets are about
+        mockMvc.perform(get("/api/v1/posts"));
+        mockMvc.perform(get("/api/v1/posts/{id}", postIds.get(1)));
+    }
+
+    @Test
+    void postEndpointsStayWithinTheirBudgets() throws Exception {
+        UUID published = postIds.get(1);
+        Category category = categories.get(1);
+        Tag tag = tags.get(1);
+
+        withinBudget(2, 1000, get("/api/v1/posts").param("limit", "50"));
+        withinBudget(3, 1000, get("/api/v1/posts").param("categoryId", category.getId().toString()));
+        withinBudget(3, 1000, get("/api/v1/posts").param("tagId", tag.getId().toString()));
+        withinBudget(2, 1000, authenticated(get("/api/v1/posts/drafts")));
+        withinBudget(2, 1000, get("/api/v1/posts/most-viewed").param("limit", "20"));
+        withinBudget(1, 1000, get("/api/v1/posts/search").param("q", "budgets"));
+        withinBudget(3, 1000, get("/api/v1/posts/{id}", published));
+        withinBudget(3, 2000, authenticated(get("/api/v1/posts/export")));
+        // the first autosave of a draft checks its status, the ones after it only touch memory
+        UUID draft = postIds.get(0);
+        withinBudget(1, 1000, authenticated(put("/api/v1/posts/{id}/autosave", draft))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"<p>autosaved once</p>\"}"));
+        withinBudget(0, 1000, authenticated(put("/api/v1/posts/{id}/autosave", draft))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"<p>autosaved twice</p>\"}"));
+        draftAutosaveService.discard(draft);
+
+        // a published post also takes the next publish_seq, an update and a read of the counter
+        String created = withinBudget(13, 1000, authenticated(post("/api/v1/posts"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(postJson(null, "Budget created", category, tag))).getResponse().getContentAsString();
+        UUID createdId = UUID.fromString(JsonPath.read(created, "$.id"));
+        withinBudget(15, 1000, authenticated(put("/api/v1/posts/{id}", createdId))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(postJson(createdId, "Budget updated", categories.get(2), tags.get(2))));
+        withinBudget(5, 1000, authenticated(patch("/api/v1/posts/{id}", createdId))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"baseRevision\":1,\"edits\":[{\"offset\":3,\"insert\":\"patched \"}]}"));
+        withinBudget(1, 1000, authenticated(get("/api/v1/posts/{id}/revisions/{revision}", createdId, 2)));
+        withinBudget(10, 1000, authenticated(delete("/api/v1/posts/{id}", createdId)));
+    }
+
+    @Test
+    void categoryEndpointsStayWithinTheirBudgets() throws Exception {
+        withinBudget(1, 1000, get("/api/v1/categories"));
+        String created = withinBudget(3, 1000, authenticated(post("/api/v1/categories"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"budget-new-" + suffix + "\"}")).getResponse().getContentAsString();
+        UUID createdId = UUID.fromString(JsonPath.read(created, "$.id"));
+        withinBudget(4, 1000, authenticated(delete("/api/v1/categories/{id}", createdId)));
+    }
+
+    @Test
+    void tagEndpointsStayWithinTheirBudgets() throws Exception {
+        withinBudget(1, 1000, get("/api/v1/tags"));
+        String created = withinBudget(3, 1000, authenticated(post("/api/v1/tags"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"names\":[\"budget-new-" + suffix + "\",\"" + tags.get(0).getName() + "\"]}"))
+                .getResponse().getContentAsString();
+        List<String> createdIds = JsonPath.read(created, "$[?(@.name == 'budget-new-" + suffix + "')].id");
+        UUID createdId = UUID.fromString(createdIds.get(0));
+        withinBudget(4, 1000, authenticated(delete("/api/v1/tags/{id}", createdId)));
+    }
+
+    @Test
+    void authEndpointsStayWithinTheirBudgets() throws Exception {
+        // password hashing dominates login and signup, hence the time budgets
+        withinBudget(2, 2000, post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + author.getEmail() + "\",\"password\":\"secret\"}"));
+        withinBudget(2, 2000, post("/api/v1/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"budget user\",\"email\":\"signup-" + suffix + "@example.com\",\"password\":\"secret1\"}"));
+        withinBudget(0, 1000, authenticated(get("/api/v1/auth/profile")));
+    }
+
+    private MvcResult withinBudget(int maxStatements, long maxMillis, MockHttpServletRequestBuilder request)
+            throws Exception {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class).evictAllRegions();
+        String endpoint = describe(request);
+
+        sqlCapture.start();
+        long started = System.nanoTime();
+        MvcResult result;
+        List<SqlCapture.CapturedStatement> statements;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            statements = sqlCapture.stop();
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(result.getResponse().getStatus()).as(endpoint).isBetween(200, 299);
+        List<String> overruns = new ArrayList<>();
+        if (statements.size() > maxStatements) {
+            overruns.add(statements.size() + " statements, budget " + maxStatements);
+        }
+        if (elapsedMillis > maxMillis) {
+            overruns.add(elapsedMillis + " ms, budget " + maxMillis + " ms");
+        }
+        if (!overruns.isEmpty()) {
+            fail(endpoint + ": " + String.join(", ", overruns) + SqlCapture.report(statements));
+        }
+        return result;
+    }
+
+    private static String describe(MockHttpServletRequestBuilder request) {
+        MockHttpServletRequest built = request.buildRequest(new MockServletContext());
+        return built.getMethod() + " " + built.getRequestURI()
+                + (built.getQueryString() == null ? "" : "?" + built.getQueryString());
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private static String postJson(UUID id, String title, Category category, Tag tag) {
+        return "{" + (id == null ? "" : "\"id\":\"" + id + "\",") + "\"title\":\"" + title + "\",\"content\":\"<p>budgeted content body</p>\",\"categoryId\":\""
+                + category.getId() + "\",\"tagIds\":[\"" + tag.getId() + "\"],\"status\":\"PUBLISHED\"}";
+    }
+}
@@ -0,0 +1,75 @@
+package com.chamika.blog.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// upgrades a database holding what the application wrote before the migrations, as a baselined one would be
+class MigrationTests {
+
+    private final String url = "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void fillsInTheDerivedColumnsOfExistingRows() throws Exception {
+        migrate("1");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    insert into users (id, email, name, password, created_at)
+                    values ('00000000-0000-0000-0000-000000000001', 'old@example.com', 'old', 'secret', now())""");
+            statement.execute("""
+                    insert into categories (id, name) values ('00000000-0000-0000-0000-000000000002', 'old')""");
+            statement.execute("""
+                    insert into tags (id, name) values ('00000000-0000-0000-0000-000000000004', 'old')""");
+            statement.execute("""
+                    insert into posts (id, title, content, status, reading_time, author_id, category_id, created_at, updated_at)
+                    values ('00000000-0000-0000-0000-000000000003', 'old', '<p>written &amp; <b>published</b></p>',
+                            'PUBLISHED', 1, '00000000-0000-0000-0000-000000000001',
+                            '00000000-0000-0000-0000-000000000002', now(), now())""");
+            statement.execute("""
+                    insert into posts (id, title, content, status, reading_time, author_id, category_id, created_at, updated_at)
+                    values ('00000000-0000-0000-0000-000000000005', 'long', '<p>%s</p>',
+                            'DRAFT', 1, '00000000-0000-0000-0000-000000000001',
+                            '00000000-0000-0000-0000-000000000002', now(), now())""".formatted("word ".repeat(60)));
+            statement.execute("""
+                    insert into post_tags (post_id, tag_id)
+                    values ('00000000-0000-0000-0000-000000000003', '00000000-0000-0000-0000-000000000004')""");
+        }
+
+        migrate("latest");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet post = statement.executeQuery("select excerpt from posts order by title")) {
+            assertThat(post.next()).isTrue();
+            assertThat(post.getString("excerpt")).isEqualTo(String.join(" ", Collections.nCopies(40, "word")) + "...");
+            assertThat(post.next()).isTrue();
+            assertThat(post.getString("excerpt")).isEqualTo("written & published");
+        }
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet counts = statement.executeQuery("""
+                     select c.published_post_count, t.published_post_count from categories c, tags t""")) {
+            assertThat(counts.next()).isTrue();
+            assertThat(counts.getLong(1)).isEqualTo(1);
+            assertThat(counts.getLong(2)).isEqualTo(1);
+        }
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration/common")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,105 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.domain.PostCursor;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class PostRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    void scrollsPublishedPostsByCursorWithoutGapsOrDuplicates() {
+        User author = entityManager.persist(User.builder()
+                .name("author")
+                .email("author@example.com")
+                .password("secret")
+                .posts(new ArrayList<>())
+                .build());
+        Category category = entityManager.persist(Category.builder()
+                .name("java")
+                .posts(new ArrayList<>())
+                .build());
+        for (int i = 0; i < 7; i++) {
+            entityManager.persist(Post.builder()
+                    .title("post " + i)
+                    .content("content " + i)
+                    .status(i % 2 == 0 ? PostStatus.PUBLISHED : PostStatus.DRAFT)
+                    .readingTime(1)
+                    .author(author)
+                    .category(category)
+                    .tags(new HashSet<>())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UUID> seen = new ArrayList<>();
+        PostCursor cursor = null;
+        List<PostSummary> page;
+        do {
+            page = postRepository.findSummaries(PostStatus.PUBLISHED, null, category.getId(), null, cursor, 3);
+            page.forEach(post -> seen.add(post.id()));
+            cursor = page.isEmpty() ? null : PostCursor.decode(PostCursor.of(page.get(page.size() - 1)).encode());
+        } while (page.size() == 3);
+
+        assertThat(seen).hasSize(4).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void loadsAuthorCategoryAndTagsWithThePost() {
+        User author = entityManager.persist(User.builder()
+                .name("author")
+                .email("graph@example.com")
+                .password("secret")
+                .posts(new ArrayList<>())
+                .build());
+        Category category = entityManager.persist(Category.builder()
+                .name("spring")
+                .posts(new ArrayList<>())
+                .build());
+        Tag tag = entityManager.persist(Tag.builder()
+                .name("jpa")
+                .posts(new HashSet<>())
+                .build());
+        Post post = entityManager.persist(Post.builder()
+                .title("graph")
+                .content("content")
+                .status(PostStatus.PUBLISHED)
+                .readingTime(1)
+                .author(author)
+                .category(category)
+                .tags(new HashSet<>(Set.of(tag)))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Post loaded = postRepository.findWithAssociationsById(post.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(loaded.getAuthor())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getCategory())).isTrue();
+        assertThat(Hibernate.isInitialized(loaded.getTags())).isTrue();
+    }
+}
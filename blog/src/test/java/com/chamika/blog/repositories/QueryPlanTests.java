@@ -0,0 +1,166 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.PostCursor;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.PostViewCount;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs every repository query once against the migrated schema (H2 in PostgreSQL mode, not an embedded
+// replacement) and EXPLAINs the SQL Hibernate sent. A table read without an index condition fails the test.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.chamika.blog.repositories.QueryPlanTests$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestFixtures.class)
+class QueryPlanTests {
+
+    // H2 prints "tableScan", or an index name with no condition when it walks a whole index
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* [A-Z_]+\\.(\\w+\\.tableScan|\\w+) \\*/");
+
+    // served by idx_categories_upper_name, which only the PostgreSQL migrations create
+    private static final Set<String> POSTGRESQL_ONLY = Set.of("upper(c1_0.name)=upper(?)");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostViewCountRepository postViewCountRepository;
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        User author = fixtures.author("planner");
+        Category category = fixtures.category("plan");
+        Tag tag = entityManager.persist(Tag.builder().name(fixtures.unique("plan")).posts(new HashSet<>()).build());
+        Post post = entityManager.persist(Post.builder()
+                .title("plan")
+                .content("content")
+                .status(PostStatus.PUBLISHED)
+                .readingTime(1)
+                .author(author)
+                .category(category)
+                .tags(new HashSet<>(Set.of(tag)))
+                .build());
+        entityManager.persist(PostViewCount.builder().postId(post.getId()).viewCount(1).build());
+        entityManager.flush();
+        entityManager.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        UUID id = post.getId();
+        PostCursor cursor = new PostCursor(post.getCreatedAt(), id);
+        postRepository.findWithAssociationsById(id);
+        postRepository.findUpdatedAtById(id);
+        postRepository.findAllByUpdatedAtAfterOrderByUpdatedAtAscIdAsc(
+                LocalDateTime.now().minusDays(1), ScrollPosition.keyset(), Limit.of(10));
+        postRepository.findIdsByIdInAndStatus(List.of(id), PostStatus.PUBLISHED);
+        postRepository.findTagSummariesByPostIds(List.of(id));
+        postRepository.findMostViewed(PostStatus.PUBLISHED, Limit.of(10));
+        postRepository.findSummaries(PostStatus.PUBLISHED, null, null, null, null, 20);
+        postRepository.findSummaries(PostStatus.PUBLISHED, null, null, null, cursor, 20);
+        postRepository.findSummaries(PostStatus.PUBLISHED, null, category.getId(), null, cursor, 20);
+        postRepository.findSummaries(PostStatus.PUBLISHED, null, null, tag.getId(), cursor, 20);
+        postRepository.findSummaries(PostStatus.DRAFT, author.getId(), null, null, cursor, 20);
+        try (Stream<Post> posts = postRepository.streamForExport(PostStatus.PUBLISHED, null, null, null, null, 100)) {
+            posts.forEach(entityManager::detach);
+        }
+        try (Stream<Post> posts = postRepository.streamForExport(PostStatus.PUBLISHED, category.getId(), tag.getId(),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now(), 100)) {
+            posts.forEach(entityManager::detach);
+        }
+        categoryRepository.countPostsByCategory(PostStatus.PUBLISHED);
+        categoryRepository.adjustPublishedPostCount(category.getId(), 1);
+        categoryRepository.existsByNameIgnoreCase(category.getName().toUpperCase());
+        categoryRepository.findByNameIn(List.of(category.getName()));
+        tagRepository.countPostsByTag(PostStatus.PUBLISHED);
+        tagRepository.adjustPublishedPostCount(List.of(tag.getId()), 1);
+        tagRepository.findByNameIn(Set.of(tag.getName()));
+        userRepository.findByEmail(author.getEmail());
+        postViewCountRepository.findViewCountByPostId(id);
+
+        Map<String, String> fullScans = new LinkedHashMap<>();
+        for (String sql : new LinkedHashSet<>(RecordingStatementInspector.STATEMENTS)) {
+            if (POSTGRESQL_ONLY.stream().anyMatch(sql::contains)) {
+                continue;
+            }
+            String plan = explain(sql);
+            if (FULL_SCAN.matcher(plan).find()) {
+                fullScans.put(sql, plan);
+            }
+        }
+        assertThat(RecordingStatementInspector.STATEMENTS).hasSizeGreaterThanOrEqualTo(20);
+        assertThat(fullScans).isEmpty();
+    }
+
+    // H2 plans a prepared statement without looking at the values, so every parameter is bound to null
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String normalized = sql.replaceAll("\\s+", " ").trim();
+            if (!normalized.startsWith("insert")) {
+                STATEMENTS.add(normalized);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.chamika.blog.repositories;
+
+import com.chamika.blog.SqlCapture;
+import com.chamika.blog.SqlCaptureConfiguration;
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.services.CategoryService;
+import com.chamika.blog.services.TagService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A cached read sends no SQL. After every kind of write (entity update, count change, insert, delete)
+// the next read must see the database, whether it comes from the entity regions or the query cache.
+@SpringBootTest
+@Import({SqlCaptureConfiguration.class, TestFixtures.class})
+class SecondLevelCacheTests {
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Test
+    void cachedCategoriesFollowUpdatesCountChangesAndDeletes() {
+        UUID id = fixtures.category("l2").getId();
+        UUID other = fixtures.category("l2-other").getId();
+        String renamed = fixtures.unique("l2-renamed");
+
+        categoryService.getCategoryByID(id);
+        assertThat(statementsFor(() -> categoryService.getCategoryByID(id))).isZero();
+
+        transactionTemplate.executeWithoutResult(status ->
+                categoryRepository.findById(id).orElseThrow().setName(renamed));
+        assertThat(categoryService.getCategoryByID(id).getName()).isEqualTo(renamed);
+
+        categoryService.getCategoryByID(other);
+        transactionTemplate.executeWithoutResult(status -> categoryService.adjustPublishedPostCount(id, 3));
+        assertThat(categoryService.getCategoryByID(id).getPublishedPostCount()).isEqualTo(3);
+        // a count change leaves the rest of the region alone
+        assertThat(statementsFor(() -> categoryService.getCategoryByID(other))).isZero();
+
+        categoryService.deleteCategory(id);
+        assertThatThrownBy(() -> categoryService.getCategoryByID(id)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void cachedTagsFollowCountChanges() {
+        Tag tag = tagService.createTags(Set.of(fixtures.unique("l2"))).get(0);
+        Tag other = tagService.createTags(Set.of(fixtures.unique("l2-other"))).get(0);
+
+        tagService.getTagById(tag.getId());
+        tagService.getTagById(other.getId());
+        assertThat(statementsFor(() -> tagService.getTagById(tag.getId()))).isZero();
+
+        transactionTemplate.executeWithoutResult(status ->
+                tagService.adjustPublishedPostCount(List.of(tag.getId()), 2));
+        assertThat(tagService.getTagById(tag.getId()).getPublishedPostCount()).isEqualTo(2);
+        assertThat(statementsFor(() -> tagService.getTagById(other.getId()))).isZero();
+    }
+
+    @Test
+    void cachedQueriesFollowInsertsUpdatesAndDeletes() {
+        User user = fixtures.author("l2");
+        String email = user.getEmail();
+        String changed = fixtures.unique("l2-changed") + "@example.com";
+
+        userRepository.findByEmail(email);
+        assertThat(statementsFor(() -> userRepository.findByEmail(email))).isZero();
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(user.getId()).orElseThrow().setEmail(changed));
+        assertThat(userRepository.findByEmail(email)).isEmpty();
+        assertThat(userRepository.findByEmail(changed)).isPresent();
+
+        String first = fixtures.unique("l2-first");
+        String second = fixtures.unique("l2-second");
+        tagService.createTags(Set.of(first));
+        assertThat(tagRepository.findByNameIn(Set.of(first, second))).hasSize(1);
+        tagService.createTags(Set.of(second));
+        assertThat(tagRepository.findByNameIn(Set.of(first, second))).hasSize(2);
+
+        String name = fixtures.unique("L2-Name");
+        assertThat(categoryRepository.existsByNameIgnoreCase(name)).isFalse();
+        Category category = categoryService.createCategory(Category.builder().name(name).build());
+        assertThat(categoryRepository.existsByNameIgnoreCase(name.toUpperCase())).isTrue();
+        assertThat(statementsFor(() -> categoryRepository.existsByNameIgnoreCase(name.toUpperCase()))).isZero();
+        categoryService.deleteCategory(category.getId());
+        assertThat(categoryRepository.existsByNameIgnoreCase(name.toUpperCase())).isFalse();
+    }
+
+    private int statementsFor(Supplier<?> read) {
+        sqlCapture.start();
+        List<SqlCapture.CapturedStatement> statements;
+        try {
+            read.get();
+        } finally {
+            statements = sqlCapture.stop();
+        }
+        return statements.size();
+    }
+}
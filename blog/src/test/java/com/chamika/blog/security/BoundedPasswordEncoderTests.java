@@ -0,0 +1,73 @@
+package com.chamika.blog.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTests {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+
+    @AfterEach
+    void close() {
+        encoder.close();
+    }
+
+    @Test
+    void callersBeyondThePoolAndQueueAreRejectedAtOnce() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return "hashed";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get("blog.auth.password.hashing.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(meterRegistry.get("blog.auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(meterRegistry.get("blog.auth.password.hashing").tag("operation", "encode").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void delegateFailuresReachTheCaller() {
+        when(delegate.matches(any(), any())).thenThrow(new IllegalArgumentException("Encoded password does not look like BCrypt"));
+
+        assertThatThrownBy(() -> encoder.matches("secret", "plain"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Encoded password does not look like BCrypt");
+    }
+
+    @Test
+    void onlyHashesWithAnotherCostAreUpgraded() {
+        RehashingBCryptPasswordEncoder bcrypt = new RehashingBCryptPasswordEncoder(5);
+
+        assertThat(bcrypt.upgradeEncoding(new RehashingBCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(bcrypt.upgradeEncoding(new RehashingBCryptPasswordEncoder(6).encode("secret"))).isTrue();
+        assertThat(bcrypt.upgradeEncoding(bcrypt.encode("secret"))).isFalse();
+    }
+}
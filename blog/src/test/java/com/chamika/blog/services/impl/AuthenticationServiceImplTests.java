@@ -0,0 +1,76 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.UserRepository;
+import com.chamika.blog.security.BlogUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AuthenticationServiceImplTests {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private AuthenticationServiceImpl authenticationService;
+
+    @BeforeEach
+    void setUp() {
+        authenticationService = new AuthenticationServiceImpl(
+                mock(AuthenticationManager.class),
+                userDetailsService,
+                mock(UserRepository.class),
+                mock(PasswordEncoder.class),
+                new SimpleMeterRegistry()
+        );
+        ReflectionTestUtils.setField(authenticationService, "secretKey", "test-secret-key-that-is-at-least-32-bytes-long");
+        ReflectionTestUtils.setField(authenticationService, "tokenCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(authenticationService, "tokenCacheTtl", Duration.ofMinutes(5));
+        authenticationService.init();
+    }
+
+    @Test
+    void validatesTokenFromClaimsWithoutLoadingTheUser() {
+        UUID id = UUID.randomUUID();
+        String token = authenticationService.generateToken(new BlogUserDetails(User.builder()
+                .id(id)
+                .email("reader@example.com")
+                .name("reader")
+                .password("hash")
+                .build()));
+
+        UserDetails first = authenticationService.validateToken(token);
+        UserDetails second = authenticationService.validateToken(token);
+
+        assertThat(first).isInstanceOf(BlogUserDetails.class);
+        BlogUserDetails principal = (BlogUserDetails) first;
+        assertThat(principal.getId()).isEqualTo(id);
+        assertThat(principal.getName()).isEqualTo("reader");
+        assertThat(principal.getUsername()).isEqualTo("reader@example.com");
+        assertThat(second).isSameAs(first);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = authenticationService.generateToken(new BlogUserDetails(User.builder()
+                .id(UUID.randomUUID())
+                .email("reader@example.com")
+                .name("reader")
+                .build()));
+
+        assertThatThrownBy(() -> authenticationService.validateToken(token + "x"))
+                .isInstanceOf(RuntimeException.class);
+    }
+}
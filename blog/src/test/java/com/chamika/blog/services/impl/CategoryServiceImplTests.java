@@ -0,0 +1,38 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.config.CacheConfig;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.services.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CategoryServiceImplTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void servesCategoriesFromCacheUntilTheyChange() {
+        List<Category> first = categoryService.listCategories();
+        assertThat(categoryService.listCategories()).isSameAs(first);
+
+        String name = "cached-" + UUID.randomUUID().toString().substring(0, 8);
+        Category created = categoryService.createCategory(Category.builder().name(name).build());
+        assertThat(categoryService.listCategories()).extracting(Category::getName).contains(name);
+
+        categoryService.deleteCategory(created.getId());
+        assertThat(categoryService.listCategories()).extracting(Category::getName).doesNotContain(name);
+        assertThat(cacheManager.getCache(CacheConfig.CATEGORIES)).isNotNull();
+    }
+}
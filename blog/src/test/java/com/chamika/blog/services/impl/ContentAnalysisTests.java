@@ -0,0 +1,53 @@
+package com.chamika.blog.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentAnalysisTests {
+
+    @Test
+    void countsOnlyTextWordsAndNotMarkup() {
+        ContentAnalysis analysis = ContentAnalysis.of(
+                "<h1 class=\"title\">Hello world</h1><p>A <strong>short</strong>\n post.</p><ul><li>one</li><li>two</li></ul>");
+
+        assertThat(analysis.plainText()).isEqualTo("Hello world A short post. one two");
+        assertThat(analysis.wordCount()).isEqualTo(7);
+        assertThat(analysis.readingTime()).isEqualTo(1);
+        assertThat(analysis.excerpt()).isEqualTo(analysis.plainText());
+    }
+
+    @Test
+    void decodesEntitiesAndKeepsUnknownOnesAsText() {
+        ContentAnalysis analysis = ContentAnalysis.of("<p>Tom&nbsp;&amp;&#32;Jerry &lt;3 &#x1F600; &copy; a&b</p>");
+
+        assertThat(analysis.plainText()).isEqualTo("Tom & Jerry <3 😀 &copy; a&b");
+        assertThat(analysis.wordCount()).isEqualTo(7);
+    }
+
+    @Test
+    void readingTimeRoundsUpPerTwoHundredWords() {
+        String content = "<p>" + "word ".repeat(201) + "</p>";
+
+        ContentAnalysis analysis = ContentAnalysis.of(content);
+
+        assertThat(analysis.wordCount()).isEqualTo(201);
+        assertThat(analysis.readingTime()).isEqualTo(2);
+    }
+
+    @Test
+    void excerptStopsAtTheLastFullWord() {
+        String content = "<p>" + "abcdefghi ".repeat(30) + "</p>";
+
+        ContentAnalysis analysis = ContentAnalysis.of(content);
+
+        assertThat(analysis.excerpt()).hasSize(199 + 3).endsWith("abcdefghi...");
+    }
+
+    @Test
+    void emptyContentHasNoWords() {
+        assertThat(ContentAnalysis.of("").readingTime()).isZero();
+        assertThat(ContentAnalysis.of("<p></p>").wordCount()).isZero();
+        assertThat(ContentAnalysis.of(null).excerpt()).isEmpty();
+    }
+}
@@ -0,0 +1,273 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.domain.DomainEvent;
+import com.chamika.blog.domain.entities.OutboxEvent;
+import com.chamika.blog.repositories.OutboxEventRepository;
+import com.chamika.blog.services.DomainEventHandler;
+import com.chamika.blog.services.DomainEventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+class DomainEventServiceImplTests {
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingHandler recordingHandler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void deliversCommittedEventsInOrderForEachAggregate() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> domainEventService.publishAll(List.of(
+                new DomainEvent.PostUpdated(first, 1, 1),
+                new DomainEvent.PostUpdated(second, 1, 1),
+                new DomainEvent.PostUpdated(first, 2, 2),
+                new DomainEvent.PostUpdated(second, 2, 2),
+                new DomainEvent.PostUpdated(first, 3, 3))));
+
+        // nobody calls dispatch(), the commit starts it
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(first)).isEmpty();
+            assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(second)).isEmpty();
+        });
+        assertThat(recordingHandler.revisionsOf(first)).containsExactly(1, 2, 3);
+        assertThat(recordingHandler.revisionsOf(second)).containsExactly(1, 2);
+        assertThat(recordingHandler.batchesWith(first)).isEqualTo(1);
+
+        UUID rolledBack = UUID.randomUUID();
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            domainEventService.publish(new DomainEvent.PostDeleted(rolledBack, 1));
+            throw new IllegalStateException("the change failed");
+        })).isInstanceOf(IllegalStateException.class);
+        domainEventService.dispatch();
+        assertThat(recordingHandler.eventsOf(rolledBack)).isEmpty();
+
+        // an event without the change it describes is a bug
+        assertThatThrownBy(() -> domainEventService.publish(new DomainEvent.PostDeleted(rolledBack, 1)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void ordersTheEventsOfAnAggregateByItsVersionRatherThanWhenTheyWerePublished() {
+        // published by instances whose clocks disagree: the later change got the earlier createdAt
+        UUID skewed = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> domainEventService.publishAll(List.of(
+                new DomainEvent.PostUpdated(skewed, 2, 2),
+                new DomainEvent.PostUpdated(skewed, 1, 1))));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(skewed)).isEmpty());
+        assertThat(recordingHandler.revisionsOf(skewed)).containsExactly(1, 2);
+    }
+
+    @Test
+    void runsTheHandlersAfterTheClaimCommittedAndRedeliversClaimsThatRanOut() throws Exception {
+        UUID claimed = UUID.randomUUID();
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        recordingHandler.blockNext(claimed, handling, release);
+        transactionTemplate.executeWithoutResult(status ->
+                domainEventService.publish(new DomainEvent.PostUpdated(claimed, 1, 1)));
+
+        assertThat(handling.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            // the claim is visible to everyone else while the handler runs, so nothing holds its row
+            OutboxEvent event = outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(claimed).get(0);
+            assertThat(event.getClaimedUntil()).isAfter(LocalDateTime.now());
+            List<OutboxEvent> due = transactionTemplate.execute(status ->
+                    outboxEventRepository.findDueForClaim(LocalDateTime.now(), 1000));
+            assertThat(due).doesNotContain(event);
+        } finally {
+            release.countDown();
+        }
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(claimed)).isEmpty());
+        assertThat(recordingHandler.revisionsOf(claimed)).containsExactly(1);
+
+        // claimed by an instance that died before writing the outcome
+        UUID abandoned = UUID.randomUUID();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(abandoned)
+                .aggregateVersion(1)
+                .type("PostUpdated")
+                .payload(objectMapper.writeValueAsString(new DomainEvent.PostUpdated(abandoned, 1, 1)))
+                .createdAt(LocalDateTime.now())
+                .claimedUntil(LocalDateTime.now().minusSeconds(1))
+                .build());
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(abandoned)).isEmpty());
+        assertThat(recordingHandler.revisionsOf(abandoned)).containsExactly(1);
+    }
+
+    @Test
+    void retriesFailedEventsBeforeTheLaterOnesOfTheirAggregateAndGivesUpEventually() {
+        UUID flaky = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        UUID broken = UUID.randomUUID();
+        recordingHandler.failNext(flaky, 2);
+        recordingHandler.failNext(broken, Integer.MAX_VALUE);
+        transactionTemplate.executeWithoutResult(status -> domainEventService.publishAll(List.of(
+                new DomainEvent.PostUpdated(flaky, 1, 1),
+                new DomainEvent.PostUpdated(healthy, 1, 1),
+                new DomainEvent.PostUpdated(broken, 1, 1),
+                new DomainEvent.PostUpdated(flaky, 2, 2))));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(flaky)).isEmpty();
+            assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(broken))
+                    .singleElement()
+                    .satisfies(event -> assertThat(event.getFailedAt()).isNotNull());
+        });
+        // revision 2 waited for revision 1 to go through
+        assertThat(recordingHandler.revisionsOf(flaky)).containsExactly(1, 2);
+        assertThat(recordingHandler.revisionsOf(healthy)).containsExactly(1);
+        assertThat(recordingHandler.eventsOf(broken)).isEmpty();
+
+        OutboxEvent failed = outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(broken).get(0);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(failed.getType()).isEqualTo("PostUpdated");
+        outboxEventRepository.delete(failed);
+    }
+
+    @Test
+    void deliversEachEventOnceAndInOrderWhenSeveralInstancesDispatch() throws Exception {
+        // a second instance on the same database, next to the one of this context
+        DomainEventServiceImpl otherInstance = new DomainEventServiceImpl(outboxEventRepository,
+                List.of(recordingHandler), objectMapper, transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(otherInstance, "threads", 2);
+        ReflectionTestUtils.setField(otherInstance, "batchSize", 7);
+        ReflectionTestUtils.setField(otherInstance, "claimLease", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(otherInstance, "maxAttempts", 3);
+        ReflectionTestUtils.setField(otherInstance, "initialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(otherInstance, "maxBackoff", Duration.ofMillis(10));
+        otherInstance.init();
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        Thread otherDispatcher = new Thread(() -> {
+            while (publishing.get()) {
+                otherInstance.dispatch();
+            }
+        });
+        otherDispatcher.start();
+
+        List<UUID> aggregateIds = Stream.generate(UUID::randomUUID).limit(20).toList();
+        try {
+            for (int revision = 1; revision <= 10; revision++) {
+                int current = revision;
+                transactionTemplate.executeWithoutResult(status -> domainEventService.publishAll(aggregateIds.stream()
+                        .map(id -> new DomainEvent.PostUpdated(id, current, current))
+                        .toList()));
+                domainEventService.dispatch();
+            }
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(aggregateIds)
+                    .allSatisfy(id -> assertThat(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(id)).isEmpty()));
+        } finally {
+            publishing.set(false);
+            otherDispatcher.join();
+            otherInstance.shutdown();
+        }
+
+        assertThat(aggregateIds).allSatisfy(id ->
+                assertThat(recordingHandler.revisionsOf(id)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    // remembers what it was handed, and throws for the aggregates it was told to fail
+    static class RecordingHandler implements DomainEventHandler {
+
+        private final List<List<DomainEvent>> batches = new CopyOnWriteArrayList<>();
+        private final Map<UUID, AtomicInteger> failures = new ConcurrentHashMap<>();
+        private final Map<UUID, CountDownLatch[]> blocked = new ConcurrentHashMap<>();
+
+        void failNext(UUID aggregateId, int times) {
+            failures.put(aggregateId, new AtomicInteger(times));
+        }
+
+        // counts handling down when the aggregate's next batch arrives, then waits for release
+        void blockNext(UUID aggregateId, CountDownLatch handling, CountDownLatch release) {
+            blocked.put(aggregateId, new CountDownLatch[]{handling, release});
+        }
+
+        @Override
+        public void handle(List<DomainEvent> events) {
+            for (DomainEvent event : events) {
+                CountDownLatch[] latches = blocked.remove(event.aggregateId());
+                if (latches != null) {
+                    latches[0].countDown();
+                    try {
+                        latches[1].await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                AtomicInteger remaining = failures.get(event.aggregateId());
+                if (remaining != null && remaining.getAndDecrement() > 0) {
+                    throw new IllegalStateException("failing " + event.aggregateId() + " on purpose");
+                }
+            }
+            batches.add(List.copyOf(events));
+        }
+
+        List<DomainEvent> eventsOf(UUID aggregateId) {
+            return batches.stream()
+                    .flatMap(List::stream)
+                    .filter(event -> event.aggregateId().equals(aggregateId))
+                    .toList();
+        }
+
+        List<Integer> revisionsOf(UUID aggregateId) {
+            return eventsOf(aggregateId).stream()
+                    .map(event -> ((DomainEvent.PostUpdated) event).revision())
+                    .toList();
+        }
+
+        long batchesWith(UUID aggregateId) {
+            return batches.stream()
+                    .filter(batch -> batch.stream().anyMatch(event -> event.aggregateId().equals(aggregateId)))
+                    .count();
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingHandlerConfiguration {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.SqlCapture;
+import com.chamika.blog.SqlCaptureConfiguration;
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.UpdatePostRequest;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.PostBodyRepository;
+import com.chamika.blog.repositories.PostRepository;
+import com.chamika.blog.services.DraftAutosaveService;
+import com.chamika.blog.services.PostRevisionService;
+import com.chamika.blog.services.PostService;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@Import({SqlCaptureConfiguration.class, TestFixtures.class})
+class DraftAutosaveServiceImplTests {
+
+    @Autowired
+    private DraftAutosaveService draftAutosaveService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRevisionService postRevisionService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @MockitoSpyBean
+    private PostBodyRepository postBodyRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Test
+    void coalescesAutosavesOfManyDraftsIntoOneBatchedFlush() {
+        User author = fixtures.author("autosaver");
+        Category category = fixtures.category("autosave");
+        List<Post> drafts = IntStream.range(0, 3)
+                .mapToObj(i -> fixtures.post(author, category, "draft " + i, "<p>draft body " + i + "</p>", PostStatus.DRAFT))
+                .toList();
+        // the background flush would race the assertions below
+        draftAutosaveService.flush();
+
+        for (int keystroke = 1; keystroke <= 20; keystroke++) {
+            for (Post draft : drafts) {
+                draftAutosaveService.autosave(draft.getId(), null, "<p>typed " + keystroke + " in " + draft.getTitle() + "</p>");
+            }
+        }
+        draftAutosaveService.autosave(drafts.get(0).getId(), "renamed draft", null);
+        assertThat(postBodyRepository.findById(drafts.get(0).getId()).orElseThrow().getContent()).isEqualTo("<p>draft body 0</p>");
+
+        sqlCapture.start();
+        List<SqlCapture.CapturedStatement> statements;
+        try {
+            draftAutosaveService.flush();
+        } finally {
+            statements = sqlCapture.stop();
+        }
+        // the posts with their bodies in one select, then one batch of updates for each table and one of revision inserts
+        assertThat(statements).as(SqlCapture.report(statements)).hasSize(4);
+
+        Post renamed = postRepository.findById(drafts.get(0).getId()).orElseThrow();
+        assertThat(renamed.getTitle()).isEqualTo("renamed draft");
+        assertThat(postBodyRepository.findById(renamed.getId()).orElseThrow().getContent())
+                .isEqualTo("<p>typed 20 in draft 0</p>");
+        assertThat(renamed.getExcerpt()).isEqualTo("typed 20 in draft 0");
+        assertThat(renamed.getRevision()).isEqualTo(2);
+        assertThat(postRevisionService.getContentAtRevision(renamed.getId(), 1)).isEqualTo("<p>draft body 0</p>");
+        assertThat(postRevisionService.getContentAtRevision(renamed.getId(), 2)).isEqualTo("<p>typed 20 in draft 0</p>");
+
+        // nothing pending, nothing written
+        sqlCapture.start();
+        try {
+            draftAutosaveService.flush();
+        } finally {
+            statements = sqlCapture.stop();
+        }
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    void onlyDraftsTakeAutosavesAndReadsSeeTheLatestOne() {
+        User author = fixtures.author("autosaver");
+        Category category = fixtures.category("autosave-read");
+        Post published = fixtures.post(author, category, "published", "<p>published body</p>", PostStatus.PUBLISHED);
+        Post draft = fixtures.post(author, category, "draft", "<p>draft body</p>", PostStatus.DRAFT);
+
+        assertThatThrownBy(() -> draftAutosaveService.autosave(published.getId(), null, "<p>live edit</p>"))
+                .isInstanceOf(IllegalStateException.class);
+
+        draftAutosaveService.autosave(draft.getId(), null, "<p>draft body, autosaved</p>");
+        postService.getPostVersion(draft.getId());
+        assertThat(postService.getPost(draft.getId()).getContent()).isEqualTo("<p>draft body, autosaved</p>");
+    }
+
+    @Test
+    void anAutosaveTakenByTheFlushDoesNotOverwriteAnExplicitSaveThatCommitsFirst() {
+        User author = fixtures.author("autosaver");
+        Category category = fixtures.category("autosave-race");
+        Post draft = fixtures.post(author, category, "draft", "<p>draft body</p>", PostStatus.DRAFT);
+        draftAutosaveService.autosave(draft.getId(), "autosaved title", "<p>draft body, autosaved</p>");
+
+        // the flush has taken the autosave out of the map when the author saves explicitly, the save finds
+        // nothing to flush and commits before the autosave is written
+        Answer<?> repository = mockingDetails(postBodyRepository).getMockCreationSettings().getDefaultAnswer();
+        AtomicBoolean explicitSave = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (explicitSave.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> postService.updatePost(draft.getId(), UpdatePostRequest.builder()
+                        .title("saved title")
+                        .content("<p>draft body, saved explicitly</p>")
+                        .categoryId(category.getId())
+                        .tagIds(Set.of())
+                        .status(PostStatus.DRAFT)
+                        .build())).join();
+            }
+            return repository.answer(invocation);
+        }).when(postBodyRepository).findAllWithPostByPostIdIn(anyCollection());
+        // the background flush may be the one that takes it
+        draftAutosaveService.flush();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            Post saved = postRepository.findById(draft.getId()).orElseThrow();
+            assertThat(saved.getTitle()).isEqualTo("saved title");
+            assertThat(postBodyRepository.findById(draft.getId()).orElseThrow().getContent())
+                    .isEqualTo("<p>draft body, saved explicitly</p>");
+            assertThat(saved.getRevision()).isEqualTo(2);
+        });
+        draftAutosaveService.flush();
+        assertThat(postRepository.findById(draft.getId()).orElseThrow().getTitle()).isEqualTo("saved title");
+
+        // the next autosave is taken against the saved version and written
+        draftAutosaveService.autosave(draft.getId(), null, "<p>draft body, saved and autosaved</p>");
+        draftAutosaveService.flush();
+        assertThat(postBodyRepository.findById(draft.getId()).orElseThrow().getContent())
+                .isEqualTo("<p>draft body, saved and autosaved</p>");
+    }
+}
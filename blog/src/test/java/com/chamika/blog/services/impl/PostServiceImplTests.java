@@ -0,0 +1,105 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.PostCount;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.UpdatePostRequest;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.Tag;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.CategoryRepository;
+import com.chamika.blog.repositories.TagRepository;
+import com.chamika.blog.services.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class PostServiceImplTests {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Test
+    void keepsPublishedPostCountsInStepWithPostChanges() {
+        User author = fixtures.author("author");
+        Category first = fixtures.category("first");
+        Category second = fixtures.category("second");
+        Tag kept = tagRepository.save(Tag.builder().name(fixtures.unique("kept")).build());
+        Tag dropped = tagRepository.save(Tag.builder().name(fixtures.unique("dropped")).build());
+
+        Post post = fixtures.post(author, first, "counted post", "some words to count", PostStatus.PUBLISHED,
+                Set.of(kept.getId(), dropped.getId()));
+        assertCounts(first, 1);
+        assertCounts(kept, 1);
+        assertCounts(dropped, 1);
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("counted post")
+                .content("some words to count")
+                .categoryId(second.getId())
+                .tagIds(Set.of(kept.getId()))
+                .status(PostStatus.PUBLISHED)
+                .build());
+        assertCounts(first, 0);
+        assertCounts(second, 1);
+        assertCounts(kept, 1);
+        assertCounts(dropped, 0);
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("counted post")
+                .content("some words to count")
+                .categoryId(second.getId())
+                .tagIds(Set.of(kept.getId()))
+                .status(PostStatus.DRAFT)
+                .build());
+        assertCounts(second, 0);
+        assertCounts(kept, 0);
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("counted post")
+                .content("some words to count")
+                .categoryId(second.getId())
+                .tagIds(Set.of(kept.getId()))
+                .status(PostStatus.PUBLISHED)
+                .build());
+        postService.deletePost(post.getId());
+        assertCounts(second, 0);
+        assertCounts(kept, 0);
+    }
+
+    // the counter, and what counting the posts gives
+    private void assertCounts(Category category, long expected) {
+        assertThat(categoryRepository.findById(category.getId()).orElseThrow().getPublishedPostCount())
+                .isEqualTo(expected);
+        assertThat(categoryRepository.countPostsByCategory(PostStatus.PUBLISHED).stream()
+                .filter(count -> count.id().equals(category.getId()))
+                .mapToLong(PostCount::count)
+                .sum()).isEqualTo(expected);
+    }
+
+    private void assertCounts(Tag tag, long expected) {
+        assertThat(tagRepository.findById(tag.getId()).orElseThrow().getPublishedPostCount())
+                .isEqualTo(expected);
+        assertThat(tagRepository.countPostsByTag(PostStatus.PUBLISHED).stream()
+                .filter(count -> count.id().equals(tag.getId()))
+                .mapToLong(PostCount::count)
+                .sum()).isEqualTo(expected);
+    }
+}
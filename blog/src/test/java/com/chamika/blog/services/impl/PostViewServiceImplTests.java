@@ -0,0 +1,83 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.PostSummary;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.PostViewCountRepository;
+import com.chamika.blog.services.PostService;
+import com.chamika.blog.services.PostViewService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class PostViewServiceImplTests {
+
+    @Autowired
+    private PostViewService postViewService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostViewCountRepository postViewCountRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void concurrentViewsAreFlushedAsDeltasAndRankPosts() throws InterruptedException {
+        User author = fixtures.author("viewed");
+        Category category = fixtures.category("views");
+        Post popular = fixtures.post(author, category, "popular", "<p>popular post</p>", PostStatus.PUBLISHED);
+        Post quiet = fixtures.post(author, category, "quiet", "<p>quiet post</p>", PostStatus.PUBLISHED);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for(int i = 0; i < 4; i++){
+            executor.execute(() -> {
+                for(int view = 0; view < 5_000; view++){
+                    postViewService.recordView(popular.getId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        for(int view = 0; view < 100; view++){
+            postViewService.recordView(quiet.getId());
+        }
+
+        assertThat(postViewService.getViewCount(popular.getId())).isEqualTo(20_000);
+        postViewService.flush();
+        postViewService.recordView(popular.getId());
+        postViewService.flush();
+
+        assertThat(postViewCountRepository.findById(popular.getId()).orElseThrow().getViewCount()).isEqualTo(20_001);
+        assertThat(postViewService.getViewCount(popular.getId())).isEqualTo(20_001);
+        List<PostSummary> mostViewed = postService.getMostViewedPosts(2);
+        assertThat(mostViewed).extracting(PostSummary::id).containsExactly(popular.getId(), quiet.getId());
+        assertThat(mostViewed).extracting(PostSummary::viewCount).containsExactly(20_001L, 100L);
+
+        postService.deletePost(popular.getId());
+        assertThat(postViewCountRepository.findById(popular.getId())).isEmpty();
+        assertThat(postViewService.getViewCount(popular.getId())).isZero();
+
+        // a GET that was already past the lookup when the post went away
+        postViewService.recordView(popular.getId());
+        postViewService.recordView(quiet.getId());
+        postViewService.flush();
+        assertThat(postViewCountRepository.findById(popular.getId())).isEmpty();
+        assertThat(postViewCountRepository.findById(quiet.getId()).orElseThrow().getViewCount()).isEqualTo(101);
+    }
+}
@@ -0,0 +1,118 @@
+package com.chamika.blog.services.impl;
+
+import com.chamika.blog.TestFixtures;
+import com.chamika.blog.domain.PostSearchHit;
+import com.chamika.blog.domain.PostStatus;
+import com.chamika.blog.domain.UpdatePostRequest;
+import com.chamika.blog.domain.entities.Category;
+import com.chamika.blog.domain.entities.Post;
+import com.chamika.blog.domain.entities.User;
+import com.chamika.blog.repositories.OutboxEventRepository;
+import com.chamika.blog.services.DomainEventService;
+import com.chamika.blog.services.PostService;
+import com.chamika.blog.services.SearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestFixtures.class)
+class SearchServiceImplTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SearchServiceImpl searchServiceImpl;
+
+    @Test
+    void findsPublishedPostsAndFollowsUpdatesAndDeletes() {
+        User author = fixtures.author("author");
+        Category category = fixtures.category("search");
+
+        Post post = fixtures.post(author, category, "Tuning the garbage collector",
+                "<p>Choosing a <strong>collector</strong> for low latency services.</p>", PostStatus.PUBLISHED);
+        // the index follows the post events, which are handled after the commit
+        domainEventService.dispatch();
+
+        List<PostSearchHit> hits = searchService.search("latency", 10);
+        assertThat(hits).extracting(PostSearchHit::id).containsExactly(post.getId());
+        assertThat(hits.get(0).snippet()).contains("<mark>latency</mark>");
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("Tuning the garbage collector")
+                .content("<p>Choosing a collector for low latency services.</p>")
+                .categoryId(category.getId())
+                .tagIds(Set.of())
+                .status(PostStatus.DRAFT)
+                .build());
+        domainEventService.dispatch();
+        assertThat(searchService.search("latency", 10)).isEmpty();
+
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("Tuning the garbage collector")
+                .content("<p>Choosing a collector for low latency services.</p>")
+                .categoryId(category.getId())
+                .tagIds(Set.of())
+                .status(PostStatus.PUBLISHED)
+                .build());
+        domainEventService.dispatch();
+        assertThat(searchService.search("garbage", 10)).hasSize(1);
+
+        postService.deletePost(post.getId());
+        domainEventService.dispatch();
+        assertThat(searchService.search("garbage", 10)).isEmpty();
+    }
+
+    @Test
+    void catchesUpWithPostsWhoseEventsAnotherInstanceHandled() throws Exception {
+        User author = fixtures.author("author");
+        Category category = fixtures.category("elsewhere");
+
+        // its event is gone from the outbox before this instance could claim it
+        Post post = transactionTemplate.execute(status -> {
+            Post created = fixtures.post(author, category, "Indexed elsewhere",
+                    "<p>Handled by the other instance</p>", PostStatus.PUBLISHED);
+            outboxEventRepository.deleteAll(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(created.getId()));
+            return created;
+        });
+        domainEventService.dispatch();
+        assertThat(searchService.search("elsewhere", 10)).isEmpty();
+
+        searchServiceImpl.catchUp();
+        assertThat(searchService.search("elsewhere", 10)).extracting(PostSearchHit::id).containsExactly(post.getId());
+
+        // deleted on the other instance, the row is gone so only the index says it ever existed
+        transactionTemplate.executeWithoutResult(status -> {
+            postService.deletePost(post.getId());
+            outboxEventRepository.deleteAll(outboxEventRepository.findByAggregateIdOrderByCreatedAtAscIdAsc(post.getId()));
+        });
+        domainEventService.dispatch();
+        assertThat(searchServiceImpl.isIndexed(post.getId())).isTrue();
+
+        searchServiceImpl.catchUp();
+        assertThat(searchServiceImpl.isIndexed(post.getId())).isFalse();
+    }
+}